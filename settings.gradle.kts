@@ -1,4 +1,5 @@
 
 rootProject.name = "shapeshift-parent"
 include(":shapeshift")
-include(":spring-boot-starter-shapeshift")
\ No newline at end of file
+include(":spring-boot-starter-shapeshift")
+include(":shapeshift-index-processor")
\ No newline at end of file
@@ -0,0 +1,11 @@
+
+plugins {
+    id("dev.krud.shapeshift.common-conventions")
+}
+
+dependencies {
+    testImplementation(project(":shapeshift"))
+    testImplementation("com.google.testing.compile:compile-testing:0.19")
+}
+
+description = "shapeshift-index-processor"
\ No newline at end of file
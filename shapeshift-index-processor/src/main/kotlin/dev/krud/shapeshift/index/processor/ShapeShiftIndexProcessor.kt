@@ -0,0 +1,151 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.index.processor
+
+import java.util.SortedSet
+import javax.annotation.processing.AbstractProcessor
+import javax.annotation.processing.RoundEnvironment
+import javax.annotation.processing.SupportedAnnotationTypes
+import javax.lang.model.SourceVersion
+import javax.lang.model.element.AnnotationMirror
+import javax.lang.model.element.AnnotationValue
+import javax.lang.model.element.Element
+import javax.lang.model.element.ElementKind
+import javax.lang.model.element.TypeElement
+import javax.lang.model.type.DeclaredType
+import javax.lang.model.type.TypeMirror
+import javax.tools.Diagnostic
+import javax.tools.StandardLocation
+
+/**
+ * Writes the index read by `dev.krud.shapeshift.index.ShapeShiftIndex` to [INDEX_LOCATION], listing every class carrying
+ * `@MappedField`, `@DefaultMappingTarget` or `@AutoMapping` along with the targets declared by its annotations.
+ * Each line maps the binary name of a source class to the comma separated binary names of its targets.
+ * Only annotated classes are indexed, so that the processor stays incremental. Subclasses which inherit the annotations are
+ * resolved on first use instead.
+ * The annotations are matched by name, so the processor does not depend on or load ShapeShift itself
+ */
+@SupportedAnnotationTypes(
+    ShapeShiftIndexProcessor.MAPPED_FIELD,
+    ShapeShiftIndexProcessor.MAPPED_FIELD_CONTAINER,
+    ShapeShiftIndexProcessor.DEFAULT_MAPPING_TARGET,
+    ShapeShiftIndexProcessor.AUTO_MAPPING,
+    ShapeShiftIndexProcessor.AUTO_MAPPING_CONTAINER
+)
+class ShapeShiftIndexProcessor : AbstractProcessor() {
+    private val targets = sortedMapOf<String, SortedSet<String>>()
+
+    override fun getSupportedSourceVersion(): SourceVersion {
+        return SourceVersion.latestSupported()
+    }
+
+    override fun process(annotations: Set<TypeElement>, roundEnv: RoundEnvironment): Boolean {
+        for (annotation in annotations) {
+            for (element in roundEnv.getElementsAnnotatedWith(annotation)) {
+                val typeElement = (if (element is TypeElement) element else element.enclosingElement) as? TypeElement ?: continue
+                indexType(typeElement)
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex()
+        }
+        return false
+    }
+
+    private fun indexType(typeElement: TypeElement) {
+        val source = processingEnv.elementUtils.getBinaryName(typeElement).toString()
+        val sourceTargets = targets.getOrPut(source) { sortedSetOf() }
+        val defaultTarget = typeElement.findAnnotations(DEFAULT_MAPPING_TARGET, null).firstOrNull()?.getClassValue("value")
+        if (defaultTarget != null) {
+            sourceTargets += defaultTarget
+        }
+        sourceTargets += getMappedFieldTargets(typeElement)
+        for (autoMapping in typeElement.findAnnotations(AUTO_MAPPING, AUTO_MAPPING_CONTAINER)) {
+            sourceTargets += autoMapping.getClassValue("target") ?: defaultTarget ?: continue
+        }
+    }
+
+    /**
+     * Get the targets of the `@MappedField` annotations declared on [typeElement] and its fields, falling back to its default target
+     */
+    private fun getMappedFieldTargets(typeElement: TypeElement): List<String> {
+        val defaultTarget = typeElement.findAnnotations(DEFAULT_MAPPING_TARGET, null).firstOrNull()?.getClassValue("value")
+        val fields = typeElement.enclosedElements.filter { it.kind == ElementKind.FIELD }
+        val mappedFields = typeElement.findAnnotations(MAPPED_FIELD, MAPPED_FIELD_CONTAINER) +
+            fields.flatMap { it.findAnnotations(MAPPED_FIELD, MAPPED_FIELD_CONTAINER) }
+        return mappedFields.mapNotNull { it.getClassValue("target") ?: defaultTarget }
+    }
+
+    private fun writeIndex() {
+        if (targets.isEmpty()) {
+            return
+        }
+        try {
+            val resource = processingEnv.filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION)
+            resource.openWriter().use { writer ->
+                for ((source, sourceTargets) in targets) {
+                    writer.write(source)
+                    writer.write("=")
+                    writer.write(sourceTargets.joinToString(","))
+                    writer.write("\n")
+                }
+            }
+        } catch (e: Exception) {
+            processingEnv.messager.printMessage(Diagnostic.Kind.ERROR, "Could not write ShapeShift index to $INDEX_LOCATION: ${e.message}")
+        }
+    }
+
+    /**
+     * Get the annotations named [name] on this element, including those repeated within a [containerName] annotation
+     */
+    private fun Element.findAnnotations(name: String, containerName: String?): List<AnnotationMirror> {
+        val result = mutableListOf<AnnotationMirror>()
+        for (annotationMirror in annotationMirrors) {
+            when (annotationMirror.typeName) {
+                name -> result += annotationMirror
+                containerName -> {
+                    val values = annotationMirror.getValue("value")?.value as? List<*> ?: continue
+                    result += values.mapNotNull { (it as? AnnotationValue)?.value as? AnnotationMirror }
+                }
+            }
+        }
+        return result
+    }
+
+    /**
+     * Get the binary name of the class value [name] of this annotation, or null if it is not set
+     */
+    private fun AnnotationMirror.getClassValue(name: String): String? {
+        val typeMirror = getValue(name)?.value as? TypeMirror ?: return null
+        val typeElement = (processingEnv.typeUtils.erasure(typeMirror) as? DeclaredType)?.asElement() as? TypeElement ?: return null
+        val binaryName = processingEnv.elementUtils.getBinaryName(typeElement).toString()
+        return binaryName.takeIf { it !in NO_TARGET_NAMES }
+    }
+
+    private fun AnnotationMirror.getValue(name: String): AnnotationValue? {
+        return elementValues.entries.firstOrNull { it.key.simpleName.contentEquals(name) }?.value
+    }
+
+    private val AnnotationMirror.typeName: String
+        get() = (annotationType.asElement() as TypeElement).qualifiedName.toString()
+
+    companion object {
+        const val INDEX_LOCATION = "META-INF/shapeshift/index"
+        const val MAPPED_FIELD = "dev.krud.shapeshift.resolver.annotation.MappedField"
+        const val MAPPED_FIELD_CONTAINER = "$MAPPED_FIELD.Container"
+        const val DEFAULT_MAPPING_TARGET = "dev.krud.shapeshift.resolver.annotation.DefaultMappingTarget"
+        const val AUTO_MAPPING = "dev.krud.shapeshift.resolver.annotation.AutoMapping"
+        const val AUTO_MAPPING_CONTAINER = "$AUTO_MAPPING.Container"
+
+        // Nothing::class, the default target of the annotations, is compiled to Void
+        private val NO_TARGET_NAMES = setOf("java.lang.Void", "kotlin.Nothing")
+    }
+}
\ No newline at end of file
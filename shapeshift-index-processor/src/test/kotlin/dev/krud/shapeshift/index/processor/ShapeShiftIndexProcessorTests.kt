@@ -0,0 +1,53 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.index.processor
+
+import com.google.testing.compile.Compilation
+import com.google.testing.compile.Compiler.javac
+import com.google.testing.compile.JavaFileObjects
+import org.junit.jupiter.api.Test
+import strikt.api.expectThat
+import strikt.assertions.isEqualTo
+import javax.tools.StandardLocation
+
+class ShapeShiftIndexProcessorTests {
+    @Test
+    internal fun `index should list the targets of annotated classes only`() {
+        val compilation = javac()
+            .withProcessors(ShapeShiftIndexProcessor())
+            .compile(
+                JavaFileObjects.forSourceString("test.Target", "package test; public class Target { public String name; }"),
+                JavaFileObjects.forSourceString("test.OtherTarget", "package test; public class OtherTarget { public String otherName; }"),
+                JavaFileObjects.forSourceString(
+                    "test.Source",
+                    """
+                    package test;
+
+                    import dev.krud.shapeshift.resolver.annotation.DefaultMappingTarget;
+                    import dev.krud.shapeshift.resolver.annotation.MappedField;
+
+                    @DefaultMappingTarget(Target.class)
+                    public class Source {
+                        @MappedField
+                        @MappedField(target = OtherTarget.class, mapTo = "otherName")
+                        public String name;
+                    }
+                    """.trimIndent()
+                ),
+                JavaFileObjects.forSourceString("test.SubSource", "package test; public class SubSource extends Source {}")
+            )
+        expectThat(compilation.status())
+            .isEqualTo(Compilation.Status.SUCCESS)
+        val index = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, ShapeShiftIndexProcessor.INDEX_LOCATION).get()
+        expectThat(index.getCharContent(true).toString().lines().filter { it.isNotEmpty() })
+            .isEqualTo(listOf("test.Source=test.OtherTarget,test.Target"))
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift
+
+/**
+ * A set of target field paths to map, such as `id` or `owner.name`.
+ * Target fields outside of the projection are skipped along with their whole nested graph, a path ending at a nested object
+ * maps all of its fields
+ */
+class MappingProjection private constructor(
+    val paths: Set<String>,
+    internal val isAll: Boolean
+) {
+    private val children: Map<String, MappingProjection> by lazy {
+        paths
+            .groupBy({ it.substringBefore('.') }, { it.substringAfter('.', "") })
+            .mapValues { (_, subPaths) ->
+                if (subPaths.any { it.isEmpty() }) ALL else MappingProjection(subPaths.toSet(), false)
+            }
+    }
+
+    /**
+     * Resolve the projection of the nested target field at [path], or null if the field is not part of this projection
+     */
+    internal fun resolve(path: List<String>): MappingProjection? {
+        var current = this
+        for (name in path) {
+            if (current.isAll) {
+                return ALL
+            }
+            current = current.children[name] ?: return null
+        }
+        return current
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is MappingProjection) return false
+        return isAll == other.isAll && paths == other.paths
+    }
+
+    override fun hashCode(): Int {
+        return 31 * paths.hashCode() + isAll.hashCode()
+    }
+
+    override fun toString(): String {
+        return if (isAll) "MappingProjection(*)" else "MappingProjection($paths)"
+    }
+
+    companion object {
+        internal val ALL = MappingProjection(emptySet(), true)
+
+        /**
+         * Create a projection of the given target field [paths], nested fields are separated by a `.`
+         */
+        @JvmStatic
+        fun of(vararg paths: String): MappingProjection {
+            return of(paths.toList())
+        }
+
+        /**
+         * Create a projection of the given target field [paths], nested fields are separated by a `.`
+         * Paths nested under another selected path are redundant and dropped, so equivalent projections are equal
+         */
+        @JvmStatic
+        fun of(paths: Collection<String>): MappingProjection {
+            for (path in paths) {
+                require(path.split('.').none { it.isBlank() }) { "Invalid projection path '$path'" }
+            }
+            val uniquePaths = paths.toSet()
+            val normalizedPaths = uniquePaths.filterTo(mutableSetOf()) { path ->
+                uniquePaths.none { other -> path.startsWith("$other.") }
+            }
+            return MappingProjection(normalizedPaths, false)
+        }
+    }
+}
\ No newline at end of file
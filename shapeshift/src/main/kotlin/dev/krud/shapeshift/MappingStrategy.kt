@@ -24,5 +24,11 @@ enum class MappingStrategy {
     /**
      * A strategy that maps only the values that are not null
      */
-    MAP_NOT_NULL
+    MAP_NOT_NULL,
+
+    /**
+     * A strategy that maps all values, but only writes values that are not equal to the current value of the target field.
+     * Arrays are compared by content, nested objects mapped in place are not written again
+     */
+    MAP_CHANGED
 }
\ No newline at end of file
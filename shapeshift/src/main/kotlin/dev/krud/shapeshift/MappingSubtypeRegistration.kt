@@ -0,0 +1,27 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift
+
+/**
+ * Binds a subtype pair to a polymorphic mapping between [fromClazz] and [toClazz].
+ * When an instance of [subtypeFromClazz] is mapped to [toClazz], an instance of [subtypeToClazz] is created instead.
+ */
+data class MappingSubtypeRegistration<From : Any, To : Any>(
+    val fromClazz: Class<From>,
+    val toClazz: Class<To>,
+    val subtypeFromClazz: Class<out From>,
+    val subtypeToClazz: Class<out To>
+) {
+    init {
+        require(fromClazz.isAssignableFrom(subtypeFromClazz)) { "$subtypeFromClazz is not a subtype of $fromClazz" }
+        require(toClazz.isAssignableFrom(subtypeToClazz)) { "$subtypeToClazz is not a subtype of $toClazz" }
+    }
+}
\ No newline at end of file
@@ -11,24 +11,57 @@
 package dev.krud.shapeshift
 
 import dev.krud.shapeshift.MappingDecoratorRegistration.Companion.id
-import dev.krud.shapeshift.MappingTransformerRegistration.Companion.id
 import dev.krud.shapeshift.condition.MappingCondition
 import dev.krud.shapeshift.condition.MappingConditionContext
 import dev.krud.shapeshift.container.ContainerAdapter
+import dev.krud.shapeshift.decorator.DependentMappingDecorator
 import dev.krud.shapeshift.decorator.MappingDecorator
 import dev.krud.shapeshift.decorator.MappingDecoratorContext
+import dev.krud.shapeshift.dto.CopyPlan
+import dev.krud.shapeshift.dto.MappingDifference
+import dev.krud.shapeshift.dto.MappingFanOutPlan
+import dev.krud.shapeshift.dto.MappingMergePlan
 import dev.krud.shapeshift.dto.MappingStructure
 import dev.krud.shapeshift.dto.ObjectFieldTrio
+import dev.krud.shapeshift.dto.ProjectedMappedField
 import dev.krud.shapeshift.dto.ResolvedMappedField
 import dev.krud.shapeshift.dto.TransformerCoordinates
+import dev.krud.shapeshift.enums.CollectionMappingStrategy
+import dev.krud.shapeshift.enums.MergePrecedence
+import dev.krud.shapeshift.index.ShapeShiftIndex
+import dev.krud.shapeshift.resolver.MappingDefinition
 import dev.krud.shapeshift.resolver.MappingDefinitionResolver
+import dev.krud.shapeshift.transformer.ImplicitCollectionMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMapMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformerContext
 import dev.krud.shapeshift.util.ClassPair
+import dev.krud.shapeshift.util.LazyMappedList
 import dev.krud.shapeshift.util.concurrentMapOf
+import dev.krud.shapeshift.util.findGenericAtPosition
+import dev.krud.shapeshift.util.getCollectionFactory
+import dev.krud.shapeshift.util.getDeclaredFieldRecursive
+import dev.krud.shapeshift.util.getMapFactory
 import dev.krud.shapeshift.util.getValue
+import dev.krud.shapeshift.util.hashCapacityOf
+import dev.krud.shapeshift.util.isConcrete
+import dev.krud.shapeshift.util.isImmutableType
+import dev.krud.shapeshift.util.isJdkType
+import dev.krud.shapeshift.util.isValueType
 import dev.krud.shapeshift.util.setValue
 import java.lang.reflect.Field
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.lang.reflect.Type
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.Objects
+import java.util.SortedMap
+import java.util.SortedSet
+import java.util.TreeMap
+import java.util.TreeSet
+import java.util.concurrent.ConcurrentMap
 import java.util.function.Supplier
 
 class ShapeShift internal constructor(
@@ -37,22 +70,82 @@ class ShapeShift internal constructor(
     val defaultMappingStrategy: MappingStrategy,
     val decoratorRegistrations: Set<MappingDecoratorRegistration<out Any, out Any>>,
     val objectSuppliers: Map<Class<*>, Supplier<*>>,
-    val containerAdapters: Map<Class<*>, ContainerAdapter<out Any>>
+    val containerAdapters: Map<Class<*>, ContainerAdapter<out Any>>,
+    val subtypeRegistrations: Set<MappingSubtypeRegistration<out Any, out Any>>,
+    val deepUpdate: Boolean = false
 ) {
-    val transformerRegistrations: MutableList<MappingTransformerRegistration<out Any, out Any>> = mutableListOf()
-    internal val transformersByTypeCache: MutableMap<Class<out MappingTransformer<out Any?, out Any?>>, MappingTransformerRegistration<out Any?, out Any?>> =
-        concurrentMapOf()
-    internal val defaultTransformers: MutableMap<ClassPair<out Any, out Any>, MappingTransformerRegistration<out Any, out Any>> = mutableMapOf()
+    private val transformerRegistry = TransformerRegistry(transformersRegistrations)
+    val transformerRegistrations: List<MappingTransformerRegistration<out Any, out Any>> get() = transformerRegistry.registrations
     private val mappingStructures: MutableMap<ClassPair<out Any, out Any>, MappingStructure> = concurrentMapOf()
+
+    // Definitions of nested pairs planned by deep auto mapping, used for pairs which no resolver defines fields for, from the
+    // moment the pair planning them is resolved
+    private val nestedMappingDefinitions: MutableMap<ClassPair<out Any, out Any>, MappingDefinition> = concurrentMapOf()
+    private val fanOutPlans: MutableMap<List<Class<*>>, MappingFanOutPlan> = concurrentMapOf()
+    private val mergePlans: MutableMap<List<Any>, MappingMergePlan> = concurrentMapOf()
+    private val copyPlans = object : ClassValue<CopyPlan>() {
+        override fun computeValue(type: Class<*>): CopyPlan = CopyPlan.of(type)
+    }
+
+    // Copies keep the class of the original collection when it can be instantiated, otherwise fall back to the default implementation of its interface
+    private val copyCollectionFactories = object : ClassValue<(Int) -> MutableCollection<Any?>>() {
+        override fun computeValue(type: Class<*>): (Int) -> MutableCollection<Any?> {
+            val fallbackType = when {
+                List::class.java.isAssignableFrom(type) -> List::class.java
+                Set::class.java.isAssignableFrom(type) -> Set::class.java
+                else -> Collection::class.java
+            }
+            return (if (Modifier.isPublic(type.modifiers)) runCatching { type.getCollectionFactory() }.getOrNull() else null)
+                ?: fallbackType.getCollectionFactory()
+        }
+    }
+    private val copyMapFactories = object : ClassValue<(Int) -> MutableMap<Any?, Any?>>() {
+        override fun computeValue(type: Class<*>): (Int) -> MutableMap<Any?, Any?> {
+            return (if (Modifier.isPublic(type.modifiers)) runCatching { type.getMapFactory() }.getOrNull() else null)
+                ?: Map::class.java.getMapFactory()
+        }
+    }
+    private val cloneMethods = object : ClassValue<Method?>() {
+        override fun computeValue(type: Class<*>): Method? {
+            if (!Cloneable::class.java.isAssignableFrom(type)) {
+                return null
+            }
+            return runCatching { type.getMethod("clone") }.getOrNull()
+                ?.takeIf { Modifier.isPublic(it.declaringClass.modifiers) }
+        }
+    }
     private val conditionCache: MutableMap<Class<out MappingCondition<*>>, MappingCondition<*>> = concurrentMapOf()
-    private val decoratorCache: MutableMap<ClassPair<out Any, out Any>, List<MappingDecorator<*, *>>> = concurrentMapOf()
+    private val polymorphicTargets: Set<Class<*>> = subtypeRegistrations.mapTo(mutableSetOf()) { it.toClazz }
+    private val subtypeTargets = object : ClassValue<ConcurrentMap<Class<*>, Class<*>>>() {
+        override fun computeValue(type: Class<*>): ConcurrentMap<Class<*>, Class<*>> = concurrentMapOf()
+    }
 
     init {
         if (defaultMappingStrategy == MappingStrategy.NONE) {
             error("Default mapping strategy cannot be NONE")
         }
-        for (registration in transformersRegistrations) {
-            registerTransformer(registration)
+    }
+
+    /**
+     * Resolve the mapping structure between [fromClazz] and [toClazz], along with the structures of every nested pair
+     * reachable from it through the implicit transformers
+     */
+    fun precompile(fromClazz: Class<*>, toClazz: Class<*>) {
+        getMappingStructure(fromClazz, getTargetClass(fromClazz, toClazz))
+    }
+
+    inline fun <reified From : Any, reified To : Any> precompile() {
+        precompile(From::class.java, To::class.java)
+    }
+
+    /**
+     * Precompile every pair listed in [index]
+     * @see precompile
+     */
+    @JvmOverloads
+    fun precompile(index: ShapeShiftIndex, classLoader: ClassLoader? = ShapeShiftIndex::class.java.classLoader) {
+        for ((fromClazz, toClazz) in index.getClassPairs(classLoader)) {
+            precompile(fromClazz, toClazz)
         }
     }
 
@@ -63,9 +156,10 @@ class ShapeShift internal constructor(
     /**
      * Map between the [fromObject] and a new instance of [toClazz]
      * [toClazz] MUST have a no-arg constructor when using this override
+     * If subtypes are registered for [toClazz], the instance created is of the subtype bound to the runtime class of [fromObject]
      */
     fun <From : Any, To : Any> map(fromObject: From, toClazz: Class<To>): To {
-        val toObject = initializeObject(toClazz)
+        val toObject = initializeObject(getTargetClass(fromObject::class.java, toClazz) as Class<To>)
         return map(fromObject, toObject)
     }
 
@@ -73,94 +167,780 @@ class ShapeShift internal constructor(
      * Map between the [fromObject] and [toObject] objects
      */
     fun <From : Any, To : Any> map(fromObject: From, toObject: To): To {
-        val toClazz = toObject::class.java
-        val classPair = ClassPair(fromObject::class.java, toClazz)
-        val mappingStructure = getMappingStructure(fromObject::class.java, toClazz)
+        val mappingStructure = getMappingStructure(fromObject::class.java, toObject::class.java)
+        return map(fromObject, toObject, mappingStructure)
+    }
 
+    /**
+     * Map between the [fromObject] and [toObject] objects, and return the paths of the target fields whose value changed.
+     * Fields are compared to their current value in the same way as [MappingStrategy.MAP_CHANGED]. Nested objects updated in
+     * place through deep update report their changed fields, with paths such as `customer.name`. Collections merged by key
+     * are reported when an element was added, removed or changed
+     */
+    fun <From : Any, To : Any> mapChanges(fromObject: From, toObject: To): Set<String> {
+        val changedFields = mutableSetOf<String>()
+        mapChanges(fromObject, toObject, "", changedFields)
+        return changedFields
+    }
+
+    private fun <From : Any, To : Any> mapChanges(fromObject: From, toObject: To, prefix: String, changedFields: MutableSet<String>) {
+        val mappingStructure = getMappingStructure(fromObject::class.java, toObject::class.java)
         for (resolvedMappedField in mappingStructure.resolvedMappedFields) {
-            mapField(fromObject, toObject, resolvedMappedField)
+            if (mapField(fromObject, toObject, resolvedMappedField, null, changedFields, prefix)) {
+                changedFields += prefix + resolvedMappedField.mapToCoordinates.joinToString(".") { it.name }
+            }
+        }
+        decorate(fromObject, toObject, mappingStructure)
+    }
+
+    /**
+     * Map [fromObject] to new instances of each of [toClazzes] in a single pass over the source.
+     * Source fields mapped to several targets are read once, and default transformers applied to them are run once per
+     * target field type when their result is immutable. The returned list holds the target objects in the order of [toClazzes]
+     */
+    fun <From : Any> mapToAll(fromObject: From, vararg toClazzes: Class<*>): List<Any> {
+        val fromClazz = fromObject::class.java
+        val fanOutPlan = fanOutPlans.computeIfAbsent(listOf(fromClazz) + toClazzes) {
+            MappingFanOutPlan.of(toClazzes.map { getMappingStructure(fromClazz, getTargetClass(fromClazz, it)) })
+        }
+        val toObjects = fanOutPlan.structures.map { initializeObject(it.targetClazz) }
+        val sharedValues = HashMap<Pair<MappingTransformerRegistration<*, *>, Type>, Any?>()
+        for (step in fanOutPlan.steps) {
+            val fromPair = getFieldInstanceByNodes(step.mapFromCoordinates, fromObject, SourceType.FROM) ?: continue
+            fromPair.field.isAccessible = true
+            val rawValue = fromPair.field.getValue(fromPair.target)
+            sharedValues.clear()
+            for (target in step.targets) {
+                mapFieldValue(fromObject, toObjects[target.index], target.resolvedMappedField, fromPair, rawValue, null, null, "", sharedValues)
+            }
+        }
+        for ((index, mappingStructure) in fanOutPlan.structures.withIndex()) {
+            decorate(fromObject, toObjects[index], mappingStructure)
+        }
+        return toObjects
+    }
+
+    /**
+     * Map all of [fromObjects] into a new instance of [toClazz].
+     * A target field mapped from several sources is written once, from the first source in the order of [precedence] whose
+     * value is not skipped by its mapping strategy or condition.
+     * The decorators of every source and target pair are applied once all fields are mapped, in the order of [fromObjects]
+     */
+    fun <To : Any> mapMerged(toClazz: Class<To>, precedence: MergePrecedence, vararg fromObjects: Any): To {
+        val key = listOf<Any>(toClazz, precedence) + fromObjects.map { it::class.java }
+        val mergePlan = mergePlans.computeIfAbsent(key) {
+            MappingMergePlan.of(fromObjects.map { getMappingStructure(it::class.java, toClazz) }, precedence)
+        }
+        val toObject = initializeObject(toClazz)
+        for (candidates in mergePlan.candidates) {
+            for ((index, resolvedMappedField) in candidates) {
+                if (mapField(fromObjects[index], toObject, resolvedMappedField)) {
+                    break
+                }
+            }
+        }
+        for ((index, fromObject) in fromObjects.withIndex()) {
+            decorate(fromObject, toObject, mergePlan.structures[index])
+        }
+        return toObject
+    }
+
+    /**
+     * Map all of [fromObjects] into a new instance of [toClazz], a target field mapped from several sources is mapped from the last one
+     */
+    fun <To : Any> mapMerged(toClazz: Class<To>, vararg fromObjects: Any): To {
+        return mapMerged(toClazz, MergePrecedence.LAST_WINS, *fromObjects)
+    }
+
+    inline fun <reified To : Any> mapMerged(vararg fromObjects: Any): To {
+        return mapMerged(To::class.java, *fromObjects)
+    }
+
+    /**
+     * Create a deep copy of [obj] without going through mapping definitions or transformers.
+     * Immutable values such as strings, boxed primitives, enums and `java.time` types are shared, arrays, collections, maps and
+     * other objects are copied recursively. Objects referenced more than once, including cycles, are copied once.
+     * Copied objects are created through their object supplier or no-arg constructor.
+     * Other JDK objects are copied through their public `clone` method if they are [Cloneable], such as [java.util.Date], and
+     * shared otherwise. JDK collections and maps are copied into an emptied clone if they are [Cloneable], which keeps
+     * implementations such as [java.util.EnumSet] and [java.util.EnumMap]. Collections and maps whose class cannot be
+     * instantiated, such as unmodifiable views, are copied to mutable instances of the default implementation of their interface
+     */
+    fun <T : Any> copy(obj: T): T {
+        return copyValue(obj, IdentityHashMap()) as T
+    }
+
+    private fun copyValue(value: Any?, copies: IdentityHashMap<Any, Any>): Any? {
+        if (value == null || value::class.java.isImmutableType) {
+            return value
+        }
+        val existingCopy = copies[value]
+        if (existingCopy != null) {
+            return existingCopy
+        }
+        return when {
+            value is Collection<*> -> copyCollection(value, copies)
+            value is Map<*, *> -> copyMap(value, copies)
+            value::class.java.isArray -> copyArray(value, copies)
+            value::class.java.isJdkType -> copyJdkObject(value, copies)
+            else -> copyObject(value, copies)
+        }
+    }
+
+    private fun copyJdkObject(value: Any, copies: IdentityHashMap<Any, Any>): Any {
+        val cloneMethod = cloneMethods.get(value::class.java) ?: return value
+        val copy = cloneMethod.invoke(value)
+        copies[value] = copy
+        return copy
+    }
+
+    private fun copyObject(value: Any, copies: IdentityHashMap<Any, Any>): Any {
+        val copyPlan = copyPlans.get(value::class.java)
+        val copy = initializeObject(value::class.java)
+        copies[value] = copy
+        for (field in copyPlan.sharedFields) {
+            field.setValue(copy, field.getValue(value))
+        }
+        for (field in copyPlan.copiedFields) {
+            field.setValue(copy, copyValue(field.getValue(value), copies))
+        }
+        return copy
+    }
+
+    private fun copyArray(value: Any, copies: IdentityHashMap<Any, Any>): Any {
+        val componentType = value::class.java.componentType
+        val length = java.lang.reflect.Array.getLength(value)
+        val copy = java.lang.reflect.Array.newInstance(componentType, length)
+        copies[value] = copy
+        if (componentType.isImmutableType) {
+            System.arraycopy(value, 0, copy, 0, length)
+        } else {
+            value as Array<Any?>
+            copy as Array<Any?>
+            for (index in 0 until length) {
+                copy[index] = copyValue(value[index], copies)
+            }
         }
+        return copy
+    }
 
-        val decorators = getDecorators<From, To>(classPair)
-        if (decorators.isNotEmpty()) {
+    private fun copyCollection(value: Collection<*>, copies: IdentityHashMap<Any, Any>): Any {
+        val copy = (cloneContainer(value) as MutableCollection<Any?>?)?.apply { clear() } ?: when (value) {
+            is SortedSet<*> -> TreeSet(value.comparator() as Comparator<Any?>?)
+            else -> copyCollectionFactories.get(value::class.java)(value.size)
+        }
+        copies[value] = copy
+        for (element in value) {
+            copy.add(copyValue(element, copies))
+        }
+        return copy
+    }
+
+    private fun copyMap(value: Map<*, *>, copies: IdentityHashMap<Any, Any>): Any {
+        val copy = (cloneContainer(value) as MutableMap<Any?, Any?>?)?.apply { clear() } ?: when (value) {
+            is SortedMap<*, *> -> TreeMap(value.comparator() as Comparator<Any?>?)
+            else -> copyMapFactories.get(value::class.java)(value.size)
+        }
+        copies[value] = copy
+        for ((key, element) in value) {
+            copy[copyValue(key, copies)] = copyValue(element, copies)
+        }
+        return copy
+    }
+
+    /**
+     * Clone the JDK collection or map [value] through its public `clone` method, or return null if it has none
+     */
+    private fun cloneContainer(value: Any): Any? {
+        if (!value::class.java.isJdkType) {
+            return null
+        }
+        return cloneMethods.get(value::class.java)?.invoke(value)
+    }
+
+    /**
+     * Compare [fromObject] to [toObject] and return the target fields whose current value differs from the value they would be
+     * mapped to. Nothing is written to [toObject] and no target objects are created.
+     * Nested objects, collections and maps mapped by the implicit transformers are compared field by field and element by
+     * element, with paths such as `customer.name`, `lineItems[0].quantity` or `attributes[key]`. Nested objects and elements
+     * missing from [toObject] are compared as if all of their fields were null, and collections matched by a merge key are
+     * compared by key. Other values are compared to the result of their transformer
+     */
+    fun <From : Any, To : Any> diff(fromObject: From, toObject: To): List<MappingDifference> {
+        val differences = mutableListOf<MappingDifference>()
+        diff(fromObject, toObject, toObject::class.java, toObject, "", differences)
+        return differences
+    }
+
+    /**
+     * Compare the fields of [fromObject] to those of [toObject], or to null values if [toObject] is null.
+     * [contextObject] is the closest existing target object, passed to transformers as the target object
+     */
+    private fun diff(fromObject: Any, toObject: Any?, toClazz: Class<*>, contextObject: Any, prefix: String, differences: MutableList<MappingDifference>) {
+        val mappingStructure = getMappingStructure(fromObject::class.java, toObject?.javaClass ?: getTargetClass(fromObject::class.java, toClazz))
+        for (resolvedMappedField in mappingStructure.resolvedMappedFields) {
+            val fromPair = getFieldInstanceByNodes(resolvedMappedField.mapFromCoordinates, fromObject, SourceType.FROM) ?: continue
+            // Read the target as a source, so that missing nested objects are not instantiated
+            val existingToPair = toObject?.let { getFieldInstanceByNodes(resolvedMappedField.mapToCoordinates, it, SourceType.FROM) }
+            val toField = resolvedMappedField.mapToCoordinates.last()
+            fromPair.field.isAccessible = true
+            existingToPair?.field?.isAccessible = true
+            val mappingStrategy = resolvedMappedField.effectiveMappingStrategy(defaultMappingStrategy)
+            val rawValue = fromPair.field.getValue(fromPair.target)
+            if (!mappingStrategy.shouldMapValue(rawValue)) {
+                continue
+            }
+            val fromValue = fromPair.field.unwrapValue(rawValue)
+            val currentValue = existingToPair?.let { it.field.getEffectiveValue(it.target) }
+            val path = prefix + resolvedMappedField.mapToCoordinates.joinToString(".") { it.name }
+            try {
+                if (!resolvedMappedField.conditionMatches(fromValue)) {
+                    continue
+                }
+                val transformerRegistration = getTransformer(resolvedMappedField.transformerCoordinates, fromPair, toField.getTrueType())
+                val implicitTransformer = if (resolvedMappedField.transformer == null) transformerRegistration.transformer else null
+                when {
+                    fromValue != null && implicitTransformer is ImplicitMappingTransformer ->
+                        diffObject(fromValue, currentValue, toField.getTrueType(), path, contextObject, differences)
+                    fromValue is Collection<*> && implicitTransformer is ImplicitCollectionMappingTransformer && toField.findGenericAtPosition(0) != null ->
+                        diffCollection(fromValue, currentValue, toField, resolvedMappedField.mergeKey, path, contextObject, differences)
+                    fromValue is Map<*, *> && implicitTransformer is ImplicitMapMappingTransformer && hasIdentityKeys(fromPair.field, toField) ->
+                        diffMap(fromValue, currentValue, toField, path, contextObject, differences)
+                    else -> {
+                        val mappedValue = transformValue(fromValue, fromObject, contextObject, fromPair, toField, resolvedMappedField, transformerRegistration, null, null)
+                        if (!Objects.deepEquals(currentValue, mappedValue)) {
+                            differences += MappingDifference(path, currentValue, mappedValue)
+                        }
+                    }
+                }
+            } catch (e: Exception) {
+                val newException =
+                    IllegalStateException("Could not compare value ${fromPair.field.name} of class ${fromPair.target.javaClass.simpleName} to ${toField.name} of class ${toField.declaringClass.simpleName}: ${e.message}")
+                newException.initCause(e)
+                throw newException
+            }
+        }
+    }
+
+    private fun diffObject(fromValue: Any, currentValue: Any?, toClazz: Class<*>, path: String, contextObject: Any, differences: MutableList<MappingDifference>) {
+        val toObject = currentValue?.takeIf { getTargetClass(fromValue::class.java, toClazz).isInstance(it) }
+        diff(fromValue, toObject, toClazz, toObject ?: contextObject, "$path.", differences)
+    }
+
+    private fun diffElement(fromElement: Any?, currentElement: Any?, toElementClazz: Class<*>, path: String, contextObject: Any, differences: MutableList<MappingDifference>) {
+        when {
+            fromElement == null -> if (currentElement != null) differences += MappingDifference(path, currentElement, null)
+            isIdentityMapping(fromElement::class.java, toElementClazz) -> if (!Objects.deepEquals(currentElement, fromElement)) {
+                differences += MappingDifference(path, currentElement, fromElement)
+            }
+            else -> diffObject(fromElement, currentElement, toElementClazz, path, contextObject, differences)
+        }
+    }
+
+    private fun diffCollection(
+        fromValue: Collection<*>,
+        currentValue: Any?,
+        toField: Field,
+        mergeKey: String?,
+        path: String,
+        contextObject: Any,
+        differences: MutableList<MappingDifference>
+    ) {
+        val toElementClazz = toField.findGenericAtPosition(0)!!
+        if (currentValue !is Collection<*>) {
+            if (fromValue.isEmpty()) {
+                differences += MappingDifference(path, currentValue, if (Set::class.java.isAssignableFrom(toField.type)) emptySet<Any>() else emptyList<Any>())
+                return
+            }
+            for ((index, fromElement) in fromValue.withIndex()) {
+                diffElement(fromElement, null, toElementClazz, "$path[$index]", contextObject, differences)
+            }
+            return
+        }
+        if (mergeKey == null) {
+            val currentIterator = currentValue.iterator()
+            for ((index, fromElement) in fromValue.withIndex()) {
+                val currentElement = if (currentIterator.hasNext()) currentIterator.next() else null
+                diffElement(fromElement, currentElement, toElementClazz, "$path[$index]", contextObject, differences)
+            }
+            var index = fromValue.size
+            while (currentIterator.hasNext()) {
+                differences += MappingDifference("$path[${index++}]", currentIterator.next(), null)
+            }
+            return
+        }
+        val keyExtractor = keyExtractor(mergeKey)
+        val currentByKey = HashMap<Any, Any>(hashCapacityOf(currentValue.size))
+        for (currentElement in currentValue) {
+            currentElement ?: continue
+            val key = keyExtractor(currentElement) ?: continue
+            currentByKey.putIfAbsent(key, currentElement)
+        }
+        val matched = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>(currentValue.size))
+        for ((index, fromElement) in fromValue.withIndex()) {
+            val match = fromElement?.let(keyExtractor)?.let { currentByKey[it] }?.takeIf { it !in matched }
+            if (match != null) {
+                matched += match
+            }
+            diffElement(fromElement, match, toElementClazz, "$path[$index]", contextObject, differences)
+        }
+        for ((index, currentElement) in currentValue.withIndex()) {
+            if (currentElement == null || currentElement !in matched) {
+                differences += MappingDifference("$path[$index]", currentElement, null)
+            }
+        }
+    }
+
+    private fun diffMap(
+        fromValue: Map<*, *>,
+        currentValue: Any?,
+        toField: Field,
+        path: String,
+        contextObject: Any,
+        differences: MutableList<MappingDifference>
+    ) {
+        val toValueClazz = toField.findGenericAtPosition(1)!!
+        val currentMap = currentValue as? Map<*, *>
+        if (currentMap == null && fromValue.isEmpty()) {
+            differences += MappingDifference(path, currentValue, emptyMap<Any, Any>())
+            return
+        }
+        for ((key, fromElement) in fromValue) {
+            diffElement(fromElement, currentMap?.get(key), toValueClazz, "$path[$key]", contextObject, differences)
+        }
+        if (currentMap != null) {
+            for ((key, currentElement) in currentMap) {
+                if (!fromValue.containsKey(key)) {
+                    differences += MappingDifference("$path[$key]", currentElement, null)
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the keys of a map mapped from [fromField] to [toField] are used as is, which is required to compare maps by key
+     */
+    private fun hasIdentityKeys(fromField: Field, toField: Field): Boolean {
+        val fromKeyClazz = fromField.findGenericAtPosition(0) ?: return false
+        val toKeyClazz = toField.findGenericAtPosition(0) ?: return false
+        return toField.findGenericAtPosition(1) != null && isIdentityMapping(fromKeyClazz, toKeyClazz)
+    }
+
+    /**
+     * Update [toObject], previously mapped from [fromObject], after the [changedSourceFields] of [fromObject] changed.
+     * Only the fields mapped from the changed source fields are mapped again, followed by the [DependentMappingDecorator]s
+     * depending on them. Nested source paths such as `customer.name` are treated as a change of their root field
+     */
+    fun <From : Any, To : Any> remap(fromObject: From, toObject: To, changedSourceFields: Collection<String>): To {
+        val mappingStructure = getMappingStructure(fromObject::class.java, toObject::class.java)
+        val changedRoots = changedSourceFields.mapTo(LinkedHashSet(hashCapacityOf(changedSourceFields.size))) { it.substringBefore('.') }
+        for (changedRoot in changedRoots) {
+            val resolvedMappedFields = mappingStructure.fieldsBySourceRoot[changedRoot] ?: continue
+            for (resolvedMappedField in resolvedMappedFields) {
+                mapField(fromObject, toObject, resolvedMappedField)
+            }
+        }
+        if (mappingStructure.dependentDecorators.isNotEmpty()) {
             val context = MappingDecoratorContext(fromObject, toObject, this)
-            for (decorator in decorators) {
-                decorator.decorate(context)
+            for (decorator in mappingStructure.dependentDecorators) {
+                if (decorator.dependsOn.isEmpty() || decorator.dependsOn.any { it in changedRoots }) {
+                    decorator as MappingDecorator<From, To>
+                    decorator.decorate(context)
+                }
             }
         }
+        return toObject
+    }
+
+    inline fun <From : Any, reified To : Any> map(fromObject: From, projection: MappingProjection): To {
+        return map(fromObject, To::class.java, projection)
+    }
+
+    /**
+     * Map between the [fromObject] and a new instance of [toClazz], mapping only the target fields selected by [projection]
+     * Unselected fields and their nested objects are never read, transformed or instantiated
+     */
+    fun <From : Any, To : Any> map(fromObject: From, toClazz: Class<To>, projection: MappingProjection): To {
+        val toObject = initializeObject(getTargetClass(fromObject::class.java, toClazz) as Class<To>)
+        return map(fromObject, toObject, projection)
+    }
+
+    /**
+     * Map between the [fromObject] and [toObject] objects, mapping only the target fields selected by [projection]
+     */
+    fun <From : Any, To : Any> map(fromObject: From, toObject: To, projection: MappingProjection): To {
+        val mappingStructure = getMappingStructure(fromObject::class.java, toObject::class.java)
+        if (projection.isAll) {
+            return map(fromObject, toObject, mappingStructure)
+        }
+        return map(fromObject, toObject, mappingStructure, getProjectedFields(mappingStructure, projection))
+    }
+
+    private fun <From : Any, To : Any> map(fromObject: From, toObject: To, mappingStructure: MappingStructure, projectedFields: List<ProjectedMappedField>): To {
+        for (projectedField in projectedFields) {
+            mapField(fromObject, toObject, projectedField.resolvedMappedField, projectedField.projection)
+        }
+        decorate(fromObject, toObject, mappingStructure)
+        return toObject
+    }
+
+    /**
+     * Get the fields of [mappingStructure] selected by [projection]
+     */
+    private fun getProjectedFields(mappingStructure: MappingStructure, projection: MappingProjection): List<ProjectedMappedField> {
+        val cache = mappingStructure.projectedFields
+        cache[projection]?.let { return it }
+        val projectedFields = mappingStructure.resolvedMappedFields.mapNotNull { resolvedMappedField ->
+            projection.resolve(resolvedMappedField.mapToCoordinates.map { it.name })
+                ?.let { ProjectedMappedField(resolvedMappedField, it.takeUnless { it.isAll }) }
+        }
+        if (cache.size < MappingStructure.MAX_PROJECTIONS) {
+            cache.putIfAbsent(projection, projectedFields)
+        }
+        return projectedFields
+    }
 
+    private fun <From : Any, To : Any> map(fromObject: From, toObject: To, mappingStructure: MappingStructure): To {
+        for (resolvedMappedField in mappingStructure.resolvedMappedFields) {
+            mapField(fromObject, toObject, resolvedMappedField)
+        }
+        decorate(fromObject, toObject, mappingStructure)
         return toObject
     }
 
+    private fun <From : Any, To : Any> decorate(fromObject: From, toObject: To, mappingStructure: MappingStructure) {
+        if (mappingStructure.decorators.isNotEmpty()) {
+            val context = MappingDecoratorContext(fromObject, toObject, this)
+            for (decorator in mappingStructure.decorators) {
+                decorator as MappingDecorator<From, To>
+                decorator.decorate(context)
+            }
+        }
+    }
+
     /**
      * Map [fromObjects] to a list of [toClazz] objects
+     * @param strategy The strategy used to map the elements, see [CollectionMappingStrategy]
      */
-    fun <From : Any, To : Any> mapCollection(fromObjects: Collection<From>, toClazz: Class<To>): List<To> {
-        val toObjects = mutableListOf<To>()
-        for (fromObject in fromObjects) {
-            toObjects.add(map(fromObject, toClazz))
+    @JvmOverloads
+    fun <From : Any, To : Any> mapCollection(
+        fromObjects: Collection<From>,
+        toClazz: Class<To>,
+        strategy: CollectionMappingStrategy = CollectionMappingStrategy.SEQUENTIAL
+    ): List<To> {
+        return when (strategy) {
+            CollectionMappingStrategy.SEQUENTIAL -> {
+                val toObjects = ArrayList<To>(fromObjects.size)
+                for (fromObject in fromObjects) {
+                    toObjects.add(map(fromObject, toClazz))
+                }
+                toObjects
+            }
+            CollectionMappingStrategy.GROUP_BY_TYPE -> mapCollectionGroupedByType(fromObjects, toClazz)
+            CollectionMappingStrategy.LAZY -> LazyMappedList(fromObjects as? List<From> ?: fromObjects.toList()) { map(it, toClazz) }
         }
-        return toObjects
     }
 
     /**
      * Map [fromObjects] to a list of [toClazz] objects
+     * @param strategy The strategy used to map the elements, see [CollectionMappingStrategy]
+     */
+    inline fun <From : Any, reified To : Any> mapCollection(
+        fromObjects: Collection<From>,
+        strategy: CollectionMappingStrategy = CollectionMappingStrategy.SEQUENTIAL
+    ): List<To> {
+        return mapCollection(fromObjects, To::class.java, strategy)
+    }
+
+    private fun <From : Any, To : Any> mapCollectionGroupedByType(fromObjects: Collection<From>, toClazz: Class<To>): List<To> {
+        val fromArray = fromObjects.toTypedArray<Any>()
+        val partitions = fromArray.indices.groupBy { fromArray[it]::class.java }
+        val toArray = arrayOfNulls<Any>(fromArray.size)
+        for ((fromClazz, indices) in partitions) {
+            val targetClazz = getTargetClass(fromClazz, toClazz)
+            val mappingStructure = getMappingStructure(fromClazz, targetClazz)
+            for (index in indices) {
+                toArray[index] = map(fromArray[index], initializeObject(targetClazz), mappingStructure)
+            }
+        }
+        return toArray.toMutableList() as List<To>
+    }
+
+    /**
+     * Whether an object of [fromClazz] mapped to [toClazz] can be used as is, which is the case when it is assignable to [toClazz]
+     * and no mapped fields, decorators or subtypes are defined for the pair
+     */
+    internal fun isIdentityMapping(fromClazz: Class<*>, toClazz: Class<*>): Boolean {
+        if (!toClazz.isAssignableFrom(fromClazz) || toClazz in polymorphicTargets) {
+            return false
+        }
+        val mappingStructure = getMappingStructure(fromClazz, toClazz)
+        return mappingStructure.resolvedMappedFields.isEmpty() && mappingStructure.decorators.isEmpty()
+    }
+
+    /**
+     * Get a function mapping objects to new instances of [toClazz], used by the implicit transformers to map the elements of a
+     * single collection or map. The returned function is not thread-safe.
+     * Elements of value types, such as JDK types, primitives and enums, are converted through [convertElement] with [context]
+     * instead. If [projection] is set, only the target fields it selects are mapped
+     */
+    internal fun elementMapper(toClazz: Class<*>, context: MappingTransformerContext<*>?, projection: MappingProjection? = null): (Any) -> Any? {
+        var lastClazz: Class<*>? = null
+        var lastStructure: MappingStructure? = null
+        var lastProjectedFields: List<ProjectedMappedField>? = null
+        val convertToValue = toClazz.isValueType
+        return { fromObject ->
+            val fromClazz = fromObject::class.java
+            if (convertToValue || fromClazz.isValueType) {
+                convertElement(fromObject, toClazz, context ?: error("Could not map elements of $fromClazz to value type $toClazz"))
+            } else {
+                var mappingStructure = lastStructure
+                if (fromClazz !== lastClazz || mappingStructure == null) {
+                    mappingStructure = getMappingStructure(fromClazz, getTargetClass(fromClazz, toClazz))
+                    lastClazz = fromClazz
+                    lastStructure = mappingStructure
+                    lastProjectedFields = if (projection == null || projection.isAll) null else getProjectedFields(mappingStructure, projection)
+                }
+                val toObject = initializeObject(mappingStructure.targetClazz)
+                val projectedFields = lastProjectedFields
+                if (projectedFields == null) {
+                    map(fromObject, toObject, mappingStructure)
+                } else {
+                    map(fromObject, toObject, mappingStructure, projectedFields)
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert a single [element] of the value of [context] to [toClazz] through the default transformer of its pair, used by
+     * the container transformers when the element types of both sides differ
      */
-    inline fun <From : Any, reified To : Any> mapCollection(fromObjects: Collection<From>): List<To> {
-        return mapCollection(fromObjects, To::class.java)
+    internal fun convertElement(element: Any, toClazz: Class<*>, context: MappingTransformerContext<*>): Any? {
+        if (toClazz.isInstance(element)) {
+            return element
+        }
+        val transformerRegistration = transformerRegistry.getDefault(element::class.java, toClazz)
+        if (transformerRegistration == MappingTransformerRegistration.EMPTY) {
+            error("Could not find a default transformer to map elements of ${element::class.java} to $toClazz for ${context.toField.name}")
+        }
+        val transformer = transformerRegistration.transformer as MappingTransformer<Any, Any>
+        return transformer.transform(MappingTransformerContext(element, context.fromObject, context.toObject, context.fromField, context.toField, this))
     }
 
-    private fun <From : Any, To : Any> mapField(fromObject: From, toObject: To, resolvedMappedField: ResolvedMappedField) {
-        val fromPair = getFieldInstanceByNodes(resolvedMappedField.mapFromCoordinates, fromObject, SourceType.FROM) ?: return
-        val toPair = getFieldInstanceByNodes(resolvedMappedField.mapToCoordinates, toObject, SourceType.TO) ?: return
-        val transformerRegistration = getTransformer(resolvedMappedField.transformerCoordinates, fromPair, toPair)
+    /**
+     * Map a single field, returning whether it was mapped rather than skipped by its mapping strategy or condition.
+     * If [changedFields] is set, returns whether the target value changed instead, and nested objects updated in place add
+     * their changed fields to [changedFields] under [changePrefix]. A value equal to the current target value is not written
+     * if [changedFields] is set or the mapping strategy is [MappingStrategy.MAP_CHANGED]
+     */
+    private fun <From : Any, To : Any> mapField(
+        fromObject: From,
+        toObject: To,
+        resolvedMappedField: ResolvedMappedField,
+        projection: MappingProjection? = null,
+        changedFields: MutableSet<String>? = null,
+        changePrefix: String = ""
+    ): Boolean {
+        val fromPair = getFieldInstanceByNodes(resolvedMappedField.mapFromCoordinates, fromObject, SourceType.FROM) ?: return false
         fromPair.field.isAccessible = true
+        return mapFieldValue(fromObject, toObject, resolvedMappedField, fromPair, fromPair.field.getValue(fromPair.target), projection, changedFields, changePrefix, null)
+    }
+
+    /**
+     * Map the [rawValue] already read from [fromPair] to the target field of [resolvedMappedField].
+     * If [sharedValues] is set, the results of default transformers are stored in it and reused when the same transformer is
+     * applied again to the same value for a target field of the same generic type, as long as the result is immutable
+     */
+    private fun <From : Any, To : Any> mapFieldValue(
+        fromObject: From,
+        toObject: To,
+        resolvedMappedField: ResolvedMappedField,
+        fromPair: ObjectFieldTrio,
+        rawValue: Any?,
+        projection: MappingProjection?,
+        changedFields: MutableSet<String>?,
+        changePrefix: String,
+        sharedValues: MutableMap<Pair<MappingTransformerRegistration<*, *>, Type>, Any?>?
+    ): Boolean {
+        val toPair = getFieldInstanceByNodes(resolvedMappedField.mapToCoordinates, toObject, SourceType.TO) ?: return false
+        val transformerRegistration = getTransformer(resolvedMappedField.transformerCoordinates, fromPair, toPair.type)
         toPair.field.isAccessible = true
 
         val mappingStrategy = resolvedMappedField.effectiveMappingStrategy(defaultMappingStrategy)
-        var fromValue = fromPair.field.getValue(fromPair.target)
-        val shouldMapValue = when (mappingStrategy) {
-            MappingStrategy.NONE -> error("Mapping strategy is set to NONE")
-            MappingStrategy.MAP_ALL -> true
-            MappingStrategy.MAP_NOT_NULL -> fromValue != null
+        if (!mappingStrategy.shouldMapValue(rawValue)) {
+            return false
         }
 
-        if (shouldMapValue) {
-            fromValue = fromPair.field.getEffectiveValue(fromPair.target)
-            try {
-                if (!resolvedMappedField.conditionMatches(fromValue)) {
-                    return
+        val fromValue = fromPair.field.unwrapValue(rawValue)
+        try {
+            if (!resolvedMappedField.conditionMatches(fromValue)) {
+                return false
+            }
+
+            val detectChanges = changedFields != null
+            val mergeKey = resolvedMappedField.mergeKey
+            if (mergeKey != null) {
+                val changed = mergeCollection(fromValue, toPair, mergeKey, detectChanges)
+                if (changed != null) {
+                    return changed || !detectChanges
+                }
+            }
+
+            if (changedFields != null && deepUpdate && transformerRegistration.transformer is ImplicitMappingTransformer) {
+                val existingValue = toPair.field.getEffectiveValue(toPair.target)
+                if (fromValue != null && existingValue != null && getTargetClass(fromValue::class.java, toPair.type).isInstance(existingValue)) {
+                    mapChanges(fromValue, existingValue, changePrefix + resolvedMappedField.mapToCoordinates.joinToString(".") { it.name } + ".", changedFields)
+                    return false
                 }
+            }
 
-                val valueToSet = if (resolvedMappedField.transformer != null) {
-                    val transformer = resolvedMappedField.transformer as MappingTransformer<Any, Any>
-                    val context = MappingTransformerContext(fromValue, fromObject, toObject, fromPair.field, toPair.field, this)
-                    transformer.transform(context)
-                } else if (transformerRegistration != MappingTransformerRegistration.EMPTY) {
-                    val transformer = transformerRegistration.transformer as MappingTransformer<Any, Any>
-                    val context = MappingTransformerContext(fromValue, fromObject, toObject, fromPair.field, toPair.field, this)
-                    transformer.transform(context)
+            if (projection != null && fromValue != null && transformerRegistration.transformer is ImplicitMappingTransformer) {
+                val nestedStructure = getMappingStructure(fromValue::class.java, getTargetClass(fromValue::class.java, toPair.type))
+                if (getProjectedFields(nestedStructure, projection).isEmpty()) {
+                    return false
+                }
+            }
+
+            val valueToSet = if (sharedValues != null && resolvedMappedField.transformer == null && transformerRegistration.default) {
+                val sharedValueKey = transformerRegistration to toPair.field.genericType
+                if (sharedValues.containsKey(sharedValueKey)) {
+                    sharedValues[sharedValueKey]
                 } else {
-                    fromValue
+                    transformValue(fromValue, fromObject, toObject, fromPair, toPair.field, resolvedMappedField, transformerRegistration, projection, existingValue(toPair))
+                        .also { if (it.isImmutableValue()) sharedValues[sharedValueKey] = it }
                 }
+            } else {
+                transformValue(fromValue, fromObject, toObject, fromPair, toPair.field, resolvedMappedField, transformerRegistration, projection, existingValue(toPair))
+            }
+
+            if (valueToSet != null && !toPair.type.isAssignableFrom(valueToSet::class.java)) {
+                error("Type mismatch: Expected ${toPair.type} but got ${valueToSet::class.java}")
+            }
+            if ((detectChanges || mappingStrategy == MappingStrategy.MAP_CHANGED) && Objects.deepEquals(toPair.field.getEffectiveValue(toPair.target), valueToSet)) {
+                return !detectChanges
+            }
+            toPair.field.setEffectiveValue(toPair.target, valueToSet)
+            return true
+        } catch (e: Exception) {
+            val newException =
+                IllegalStateException("Could not map value ${fromPair.field.name} of class ${fromPair.target.javaClass.simpleName} to ${toPair.field.name} of class ${toPair.target.javaClass.simpleName}: ${e.message}")
+            newException.initCause(e)
+            throw newException
+        }
+    }
 
-                if (valueToSet == null) {
-                    toPair.field.setEffectiveValue(toPair.target, null)
+    private fun transformValue(
+        fromValue: Any?,
+        fromObject: Any,
+        toObject: Any,
+        fromPair: ObjectFieldTrio,
+        toField: Field,
+        resolvedMappedField: ResolvedMappedField,
+        transformerRegistration: MappingTransformerRegistration<*, *>,
+        projection: MappingProjection?,
+        existingValue: Any?
+    ): Any? {
+        return if (resolvedMappedField.transformer != null) {
+            val transformer = resolvedMappedField.transformer as MappingTransformer<Any, Any>
+            val context = MappingTransformerContext(fromValue, fromObject, toObject, fromPair.field, toField, this, projection, existingValue)
+            transformer.transform(context)
+        } else if (transformerRegistration != MappingTransformerRegistration.EMPTY) {
+            val transformer = transformerRegistration.transformer as MappingTransformer<Any, Any>
+            val context = MappingTransformerContext(fromValue, fromObject, toObject, fromPair.field, toField, this, projection, existingValue)
+            transformer.transform(context)
+        } else {
+            fromValue
+        }
+    }
+
+    private fun MappingStrategy.shouldMapValue(value: Any?): Boolean {
+        return when (this) {
+            MappingStrategy.NONE -> error("Mapping strategy is set to NONE")
+            MappingStrategy.MAP_ALL, MappingStrategy.MAP_CHANGED -> true
+            MappingStrategy.MAP_NOT_NULL -> value != null
+        }
+    }
+
+    /**
+     * Merge [fromValue] into the existing collection of [toPair], matching elements by their [mergeKey] field.
+     * Matched elements are mapped in place, unmatched source elements are mapped to new elements and unmatched target
+     * elements are removed. A read-only target collection is replaced by a merged copy.
+     * Returns null if either side is not a collection, in which case the value is mapped as usual. Otherwise returns whether
+     * an element was added or removed, or if [detectChanges] is set, whether an element was added, removed or changed
+     */
+    private fun mergeCollection(fromValue: Any?, toPair: ObjectFieldTrio, mergeKey: String, detectChanges: Boolean): Boolean? {
+        if (fromValue !is Collection<*>) {
+            return null
+        }
+        val existing = toPair.field.getEffectiveValue(toPair.target) as? MutableCollection<Any?> ?: return null
+        val toElementClazz = toPair.field.findGenericAtPosition(0) ?: return null
+        val fromKeyExtractor = keyExtractor(mergeKey)
+        val toKeyExtractor = keyExtractor(mergeKey)
+        val index = HashMap<Any, Any>(hashCapacityOf(existing.size))
+        for (element in existing) {
+            val key = element?.let(toKeyExtractor) ?: continue
+            index.putIfAbsent(key, element)
+        }
+        val retained = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>(existing.size))
+        val added = mutableListOf<Any?>()
+        val elementMapper = elementMapper(toElementClazz, null)
+        val changedElementFields = if (detectChanges) mutableSetOf<String>() else null
+        for (fromElement in fromValue) {
+            fromElement ?: continue
+            val match = fromKeyExtractor(fromElement)?.let { index[it] }
+            if (match != null && match !in retained && getTargetClass(fromElement::class.java, toElementClazz).isInstance(match)) {
+                if (changedElementFields != null) {
+                    mapChanges(fromElement, match, "", changedElementFields)
                 } else {
-                    if (!toPair.type.isAssignableFrom(valueToSet::class.java)) {
-                        error("Type mismatch: Expected ${toPair.type} but got ${valueToSet::class.java}")
-                    }
-                    toPair.field.setEffectiveValue(toPair.target, valueToSet)
+                    map(fromElement, match)
                 }
-            } catch (e: Exception) {
-                val newException =
-                    IllegalStateException("Could not map value ${fromPair.field.name} of class ${fromPair.target.javaClass.simpleName} to ${toPair.field.name} of class ${toPair.target.javaClass.simpleName}: ${e.message}")
-                newException.initCause(e)
-                throw newException
+                retained += match
+            } else {
+                added += elementMapper(fromElement)
+            }
+        }
+        val removed = retained.size != existing.size
+        if (!removed && added.isEmpty()) {
+            return !changedElementFields.isNullOrEmpty()
+        }
+        try {
+            if (removed) {
+                existing.removeIf { it == null || it !in retained }
+            }
+            existing.addAll(added)
+        } catch (e: UnsupportedOperationException) {
+            val copy = toPair.type.getCollectionFactory()(retained.size + added.size)
+            existing.filterTo(copy) { it != null && it in retained }
+            copy.addAll(added)
+            toPair.field.setEffectiveValue(toPair.target, copy)
+        }
+        return true
+    }
+
+    /**
+     * Get a function reading the [fieldName] field of objects, the returned function is not thread-safe
+     */
+    private fun keyExtractor(fieldName: String): (Any) -> Any? {
+        var lastClazz: Class<*>? = null
+        var lastField: Field? = null
+        return { target ->
+            val clazz = target::class.java
+            var field = lastField
+            if (clazz !== lastClazz || field == null) {
+                field = clazz.getDeclaredFieldRecursive(fieldName)
+                field.isAccessible = true
+                lastClazz = clazz
+                lastField = field
             }
+            field.getValue(target)
         }
     }
 
+    private fun existingValue(toPair: ObjectFieldTrio): Any? {
+        return if (deepUpdate) toPair.field.getEffectiveValue(toPair.target) else null
+    }
+
     private fun ResolvedMappedField.conditionMatches(value: Any?): Boolean {
         val condition = this.condition
             ?: this.conditionClazz?.getCachedInstance()
@@ -215,72 +995,140 @@ class ShapeShift internal constructor(
         return getFieldInstanceByNodes(nodes.drop(1), subTarget, type)
     }
 
-    private fun getTransformerByType(type: Class<out MappingTransformer<out Any?, out Any?>>): MappingTransformerRegistration<out Any?, out Any?> {
-        return transformersByTypeCache.computeIfAbsent(type) { _ ->
-            transformerRegistrations.find { it.transformer::class.java == type } ?: MappingTransformerRegistration.EMPTY
-        }
-    }
-
     private fun getMappingStructure(fromClass: Class<*>, toClass: Class<*>): MappingStructure {
         val key = ClassPair(fromClass, toClass)
-        return mappingStructures.computeIfAbsent(key) {
+        val existingMappingStructure = mappingStructures[key]
+        if (existingMappingStructure != null) {
+            return existingMappingStructure
+        }
+        var created = false
+        val registeredPairs = mutableListOf<ClassPair<out Any, out Any>>()
+        val mappingStructure = mappingStructures.computeIfAbsent(key) {
+            created = true
             val resolutions = mappingDefinitionResolvers
                 .mapNotNull { it.resolve(fromClass, toClass) }
+            for (resolution in resolutions) {
+                for (nestedMappingDefinition in resolution.nestedMappingDefinitions) {
+                    val nestedKey = ClassPair(nestedMappingDefinition.fromClazz, nestedMappingDefinition.toClazz)
+                    if (nestedMappingDefinitions.putIfAbsent(nestedKey, nestedMappingDefinition) == null) {
+                        registeredPairs += nestedKey
+                    }
+                }
+            }
+            val resolvedMappedFields = resolutions.flatMap { it.resolvedMappedFields }
+                .ifEmpty { nestedMappingDefinitions[key]?.resolvedMappedFields.orEmpty() }
 
-            MappingStructure(fromClass, toClass, resolutions.flatMap { it.resolvedMappedFields })
+            MappingStructure(fromClass, toClass, resolvedMappedFields, getDecorators(fromClass, toClass))
         }
+        if (created) {
+            evictUnplannedStructures(registeredPairs)
+            precompileNestedStructures(mappingStructure)
+        }
+        return mappingStructure
     }
 
-    private fun <From : Any, To : Any> getDecorators(classPair: ClassPair<From, To>): List<MappingDecorator<From, To>> {
-        return decoratorCache.computeIfAbsent(classPair) {
-            decoratorRegistrations
-                .filter { decoratorRegistration ->
-                    val id = decoratorRegistration.id
-                    id.from.isAssignableFrom(classPair.from) && id.to.isAssignableFrom(classPair.to)
+    /**
+     * Evict the structures of the newly planned [pairs] which were resolved without fields before they were planned, so that
+     * they are resolved again with their nested mapping definition
+     */
+    private fun evictUnplannedStructures(pairs: List<ClassPair<out Any, out Any>>) {
+        var evicted = false
+        for (pair in pairs) {
+            val existingMappingStructure = mappingStructures[pair] ?: continue
+            if (existingMappingStructure.resolvedMappedFields.isEmpty() && mappingStructures.remove(pair, existingMappingStructure)) {
+                evicted = true
+            }
+        }
+        if (evicted) {
+            fanOutPlans.clear()
+            mergePlans.clear()
+        }
+    }
+
+    /**
+     * Resolve the structures of the nested pairs mapped by the implicit transformers of [mappingStructure], and of the inverse
+     * pair if it has reversible fields. Pairs which fail to resolve are skipped and fail on their first use instead
+     */
+    private fun precompileNestedStructures(mappingStructure: MappingStructure) {
+        if (mappingStructure.resolvedMappedFields.any { it.reversible }) {
+            runCatching { getMappingStructure(mappingStructure.targetClazz, mappingStructure.sourceClazz) }
+        }
+        for (resolvedMappedField in mappingStructure.resolvedMappedFields) {
+            if (resolvedMappedField.transformer != null) {
+                continue
+            }
+            val fromField = resolvedMappedField.mapFromCoordinates.last()
+            val toField = resolvedMappedField.mapToCoordinates.last()
+            when (resolvedMappedField.transformerCoordinates.type) {
+                ImplicitMappingTransformer::class.java -> precompileNestedStructure(fromField.getTrueType(), toField.getTrueType())
+                ImplicitCollectionMappingTransformer::class.java -> precompileNestedStructure(fromField.findGenericAtPosition(0), toField.findGenericAtPosition(0))
+                ImplicitMapMappingTransformer::class.java -> {
+                    precompileNestedStructure(fromField.findGenericAtPosition(0), toField.findGenericAtPosition(0))
+                    precompileNestedStructure(fromField.findGenericAtPosition(1), toField.findGenericAtPosition(1))
                 }
-                .map { decoratorRegistrations ->
-                    decoratorRegistrations.decorator
+            }
+        }
+    }
+
+    private fun precompileNestedStructure(fromClass: Class<*>?, toClass: Class<*>?) {
+        if (fromClass == null || toClass == null || !fromClass.isConcrete) {
+            return
+        }
+        val targetClass = getTargetClass(fromClass, toClass)
+        if (targetClass.isConcrete) {
+            runCatching { getMappingStructure(fromClass, targetClass) }
+        }
+    }
+
+    private fun getDecorators(fromClass: Class<*>, toClass: Class<*>): List<MappingDecorator<*, *>> {
+        return decoratorRegistrations
+            .filter { decoratorRegistration ->
+                val id = decoratorRegistration.id
+                id.from.isAssignableFrom(fromClass) && id.to.isAssignableFrom(toClass)
+            }
+            .map { decoratorRegistration ->
+                decoratorRegistration.decorator
+            }
+    }
+
+    /**
+     * Get the class to instantiate when mapping an object of [fromClass] to [toClass]
+     */
+    internal fun getTargetClass(fromClass: Class<*>, toClass: Class<*>): Class<*> {
+        if (toClass !in polymorphicTargets) {
+            return toClass
+        }
+        val targets = subtypeTargets.get(fromClass)
+        return targets[toClass] ?: targets.computeIfAbsent(toClass) {
+            subtypeRegistrations
+                .filter { it.toClazz == toClass && it.subtypeFromClazz.isAssignableFrom(fromClass) }
+                .reduceOrNull { mostSpecific, registration ->
+                    if (mostSpecific.subtypeFromClazz.isAssignableFrom(registration.subtypeFromClazz)) {
+                        registration
+                    } else {
+                        mostSpecific
+                    }
                 }
-        } as List<MappingDecorator<From, To>>
+                ?.subtypeToClazz
+                ?: toClass
+        }
     }
 
     private fun getTransformer(
         coordinates: TransformerCoordinates,
         fromPair: ObjectFieldTrio,
-        toPair: ObjectFieldTrio
+        toType: Class<*>
     ): MappingTransformerRegistration<*, *> {
-        var transformerRegistration: MappingTransformerRegistration<*, *> = MappingTransformerRegistration.EMPTY
+        if (coordinates.type == null) {
+            return transformerRegistry.getDefault(fromPair.type, toType)
+        }
+        val transformerRegistration = transformerRegistry.getByType(coordinates.type)
         if (transformerRegistration == MappingTransformerRegistration.EMPTY) {
-            if (coordinates.type == null) {
-                val key = ClassPair(fromPair.type, toPair.type)
-                val defaultTransformerRegistration = defaultTransformers[key]
-                if (defaultTransformerRegistration != null) {
-                    return defaultTransformerRegistration
-                }
-                return MappingTransformerRegistration.EMPTY
-            } else {
-                transformerRegistration = getTransformerByType(coordinates.type)
-                if (transformerRegistration == MappingTransformerRegistration.EMPTY) {
-                    error("Could not find transformer by type [ ${coordinates.type} ] on $fromPair")
-                }
-            }
+            error("Could not find transformer by type [ ${coordinates.type} ] on $fromPair")
         }
         return transformerRegistration
     }
 
-    private fun <From : Any, To : Any> registerTransformer(registration: MappingTransformerRegistration<From, To>) {
-        if (registration.default) {
-            val existingDefaultTransformer = defaultTransformers[registration.id]
-            if (existingDefaultTransformer != null) {
-                error("Default transformer with pair ${registration.id} already exists")
-            }
-            defaultTransformers[registration.id] = registration
-        }
-
-        transformerRegistrations.add(registration)
-        transformersByTypeCache.remove(registration.transformer::class.java)
-    }
-
     private fun <Type> initializeObject(clazz: Class<Type>): Type {
         val supplier = objectSuppliers[clazz]
         if (supplier != null) {
@@ -296,13 +1144,20 @@ class ShapeShift internal constructor(
     private val Field.isContainer: Boolean get() = type in containerAdapters
 
     private fun Field.getEffectiveValue(target: Any): Any? {
-        val value = getValue(target)
+        return unwrapValue(getValue(target))
+    }
+
+    private fun Field.unwrapValue(value: Any?): Any? {
         if (isContainer) {
             return (containerAdapters[type] as ContainerAdapter<Any?>).unwrapValue(value)
         }
         return value
     }
 
+    private fun Any?.isImmutableValue(): Boolean {
+        return this == null || this::class.java.isImmutableType
+    }
+
     private fun Field.setEffectiveValue(target: Any, value: Any?) {
         val value = if (isContainer) {
             (containerAdapters[type] as ContainerAdapter<Any?>).wrapValue(value)
@@ -312,7 +1167,10 @@ class ShapeShift internal constructor(
         setValue(target, value)
     }
 
-    private fun Field.getTrueType(): Class<*> {
+    /**
+     * Get the type of the values of this field, the value type of a container field such as an optional
+     */
+    internal fun Field.getTrueType(): Class<*> {
         return if (isContainer) {
             (containerAdapters[type] as ContainerAdapter<Any?>).getTrueType(this)
         } else {
@@ -11,6 +11,7 @@
 package dev.krud.shapeshift
 
 import dev.krud.shapeshift.MappingDecoratorRegistration.Companion.toRegistration
+import dev.krud.shapeshift.MappingTransformerRegistration.Companion.id
 import dev.krud.shapeshift.MappingTransformerRegistration.Companion.toRegistration
 import dev.krud.shapeshift.container.ContainerAdapter
 import dev.krud.shapeshift.container.OptionalContainerAdapter
@@ -21,8 +22,10 @@ import dev.krud.shapeshift.resolver.MappingDefinitionResolver
 import dev.krud.shapeshift.resolver.StaticMappingDefinitionResolver
 import dev.krud.shapeshift.resolver.annotation.AnnotationMappingDefinitionResolver
 import dev.krud.shapeshift.transformer.AnyToStringMappingTransformer
+import dev.krud.shapeshift.transformer.CollectionToPrimitiveArrayMappingTransformer
 import dev.krud.shapeshift.transformer.DateToLongMappingTransformer
 import dev.krud.shapeshift.transformer.ImplicitCollectionMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMapMappingTransformer
 import dev.krud.shapeshift.transformer.ImplicitMappingTransformer
 import dev.krud.shapeshift.transformer.LongToDateMappingTransformer
 import dev.krud.shapeshift.transformer.NumberToCharMappingTransformer
@@ -31,6 +34,8 @@ import dev.krud.shapeshift.transformer.NumberToFloatMappingTransformer
 import dev.krud.shapeshift.transformer.NumberToIntMappingTransformer
 import dev.krud.shapeshift.transformer.NumberToLongMappingTransformer
 import dev.krud.shapeshift.transformer.NumberToShortMappingTransformer
+import dev.krud.shapeshift.transformer.PrimitiveArrayToListMappingTransformer
+import dev.krud.shapeshift.transformer.PrimitiveArrayToPrimitiveArrayMappingTransformer
 import dev.krud.shapeshift.transformer.StringToBooleanMappingTransformer
 import dev.krud.shapeshift.transformer.StringToCharMappingTransformer
 import dev.krud.shapeshift.transformer.StringToDoubleMappingTransformer
@@ -56,6 +61,8 @@ class ShapeShiftBuilder {
     private val mappingDefinitions: MutableList<MappingDefinition> = mutableListOf()
     private val objectSuppliers: MutableMap<Class<*>, Supplier<*>> = mutableMapOf()
     private val containerAdapters: MutableMap<Class<*>, ContainerAdapter<out Any>> = mutableMapOf()
+    private val subtypeRegistrations: MutableSet<MappingSubtypeRegistration<out Any, out Any>> = mutableSetOf()
+    private var deepUpdate: Boolean = false
 
     init {
         // Add default annotation resolver
@@ -78,6 +85,16 @@ class ShapeShiftBuilder {
         return this
     }
 
+    /**
+     * Set whether nested objects mapped by the [ImplicitMappingTransformer] are mapped into the existing nested objects of the
+     * target, rather than into new instances. New instances are only created where the target has no nested object, or
+     * one of a different class than required by the source
+     */
+    fun withDeepUpdate(deepUpdate: Boolean): ShapeShiftBuilder {
+        this.deepUpdate = deepUpdate
+        return this
+    }
+
     /**
      * Add a decorator to the ShapeShift instance
      */
@@ -112,6 +129,10 @@ class ShapeShiftBuilder {
      * Add a resolver to the ShapeShift instance
      */
     fun withTransformer(transformerRegistration: MappingTransformerRegistration<out Any, out Any>): ShapeShiftBuilder {
+        if (transformerRegistration.default) {
+            // A default transformer for a primitive array pair replaces the built-in one instead of clashing with it
+            transformerRegistrations.removeAll { it in PRIMITIVE_ARRAY_TRANSFORMERS && it.id == transformerRegistration.id }
+        }
         transformerRegistrations += transformerRegistration
         return this
     }
@@ -121,8 +142,7 @@ class ShapeShiftBuilder {
      */
     @JvmOverloads
     fun <From : Any, To : Any> withTransformer(fromClazz: Class<From>, toClazz: Class<To>, transformer: MappingTransformer<From, To>, default: Boolean = false): ShapeShiftBuilder {
-        transformerRegistrations += MappingTransformerRegistration(fromClazz, toClazz, transformer, default)
-        return this
+        return withTransformer(MappingTransformerRegistration(fromClazz, toClazz, transformer, default))
     }
 
     /**
@@ -145,6 +165,28 @@ class ShapeShiftBuilder {
         return this
     }
 
+    /**
+     * Bind a subtype pair to the polymorphic mapping between [From] and [To]
+     * Mapping an instance of [SubFrom] to [To] will create an instance of [SubTo]
+     */
+    inline fun <reified From : Any, reified To : Any, reified SubFrom : From, reified SubTo : To> withSubtypeMapping(): ShapeShiftBuilder {
+        return withSubtypeMapping(From::class.java, To::class.java, SubFrom::class.java, SubTo::class.java)
+    }
+
+    /**
+     * Bind a subtype pair to the polymorphic mapping between [fromClazz] and [toClazz]
+     * Mapping an instance of [subtypeFromClazz] to [toClazz] will create an instance of [subtypeToClazz]
+     */
+    fun <From : Any, To : Any> withSubtypeMapping(
+        fromClazz: Class<From>,
+        toClazz: Class<To>,
+        subtypeFromClazz: Class<out From>,
+        subtypeToClazz: Class<out To>
+    ): ShapeShiftBuilder {
+        subtypeRegistrations += MappingSubtypeRegistration(fromClazz, toClazz, subtypeFromClazz, subtypeToClazz)
+        return this
+    }
+
     /**
      * Add a new mapping definition resolver to the ShapeShift instance
      */
@@ -182,10 +224,22 @@ class ShapeShiftBuilder {
             resolvers += StaticMappingDefinitionResolver(mappingDefinitions)
         }
 
-        return ShapeShift(transformerRegistrations, resolvers, defaultMappingStrategy, decoratorRegistrations, objectSuppliers, containerAdapters)
+        return ShapeShift(transformerRegistrations, resolvers, defaultMappingStrategy, decoratorRegistrations, objectSuppliers, containerAdapters, subtypeRegistrations, deepUpdate)
     }
 
     companion object {
+        private val NUMERIC_ARRAY_TYPES = listOf(
+            ByteArray::class.java,
+            ShortArray::class.java,
+            IntArray::class.java,
+            LongArray::class.java,
+            FloatArray::class.java,
+            DoubleArray::class.java
+        )
+        private val PRIMITIVE_ARRAY_TYPES = NUMERIC_ARRAY_TYPES + listOf(CharArray::class.java, BooleanArray::class.java)
+
+        private val PRIMITIVE_ARRAY_TRANSFORMERS = primitiveArrayTransformerRegistrations().toSet()
+
         private val DEFAULT_TRANSFORMERS = setOf<MappingTransformerRegistration<out Any, out Any>>(
             AnyToStringMappingTransformer().toRegistration(true),
             StringToBooleanMappingTransformer().toRegistration(true),
@@ -204,7 +258,28 @@ class ShapeShiftBuilder {
             NumberToShortMappingTransformer().toRegistration(true),
             NumberToIntMappingTransformer().toRegistration(true),
             ImplicitMappingTransformer().toRegistration(false),
-            ImplicitCollectionMappingTransformer().toRegistration(false)
-        )
+            ImplicitCollectionMappingTransformer().toRegistration(false),
+            ImplicitMapMappingTransformer().toRegistration(false)
+        ) + PRIMITIVE_ARRAY_TRANSFORMERS
+
+        @Suppress("UNCHECKED_CAST")
+        private fun primitiveArrayTransformerRegistrations(): List<MappingTransformerRegistration<out Any, out Any>> {
+            val toList = PrimitiveArrayToListMappingTransformer()
+            val fromCollection = CollectionToPrimitiveArrayMappingTransformer()
+            val toArray = PrimitiveArrayToPrimitiveArrayMappingTransformer()
+            val registrations = mutableListOf<MappingTransformerRegistration<out Any, out Any>>()
+            for (arrayType in PRIMITIVE_ARRAY_TYPES) {
+                registrations += MappingTransformerRegistration(arrayType as Class<Any>, List::class.java as Class<List<Any>>, toList, true)
+                registrations += MappingTransformerRegistration(Collection::class.java as Class<Collection<Any>>, arrayType as Class<Any>, fromCollection, true)
+            }
+            for (fromType in NUMERIC_ARRAY_TYPES) {
+                for (toType in NUMERIC_ARRAY_TYPES) {
+                    if (fromType != toType) {
+                        registrations += MappingTransformerRegistration(fromType as Class<Any>, toType as Class<Any>, toArray, true)
+                    }
+                }
+            }
+            return registrations
+        }
     }
 }
\ No newline at end of file
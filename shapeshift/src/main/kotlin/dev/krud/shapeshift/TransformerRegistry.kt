@@ -0,0 +1,105 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift
+
+import dev.krud.shapeshift.MappingTransformerRegistration.Companion.id
+import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.util.ClassPair
+import dev.krud.shapeshift.util.concurrentMapOf
+import java.util.concurrent.ConcurrentMap
+
+/**
+ * An immutable index of the transformer registrations of a [ShapeShift] instance.
+ * Registrations are indexed by their exact transformer type and by their class pair. Default transformer lookups fall back
+ * to the superclasses and interfaces of the source type, and every resolved pair is memoized per concrete source class,
+ * including pairs for which no transformer exists.
+ */
+internal class TransformerRegistry(registrations: Collection<MappingTransformerRegistration<out Any, out Any>>) {
+    val registrations: List<MappingTransformerRegistration<out Any, out Any>> = registrations.toList()
+    private val registrationsByType: Map<Class<out MappingTransformer<*, *>>, MappingTransformerRegistration<*, *>>
+    private val defaultRegistrations: Map<ClassPair<*, *>, MappingTransformerRegistration<*, *>>
+    private val resolvedDefaultRegistrations = object : ClassValue<ConcurrentMap<Class<*>, MappingTransformerRegistration<*, *>>>() {
+        override fun computeValue(type: Class<*>): ConcurrentMap<Class<*>, MappingTransformerRegistration<*, *>> = concurrentMapOf()
+    }
+
+    init {
+        val registrationsByType = mutableMapOf<Class<out MappingTransformer<*, *>>, MappingTransformerRegistration<*, *>>()
+        val defaultRegistrations = mutableMapOf<ClassPair<*, *>, MappingTransformerRegistration<*, *>>()
+        for (registration in this.registrations) {
+            if (registration.default) {
+                val existingDefaultTransformer = defaultRegistrations[registration.id]
+                if (existingDefaultTransformer != null) {
+                    error("Default transformer with pair ${registration.id} already exists")
+                }
+                defaultRegistrations[registration.id] = registration
+            }
+            registrationsByType.putIfAbsent(registration.transformer::class.java, registration)
+        }
+        this.registrationsByType = registrationsByType
+        this.defaultRegistrations = defaultRegistrations
+    }
+
+    /**
+     * Get the first registration of a transformer of the exact [type], or [MappingTransformerRegistration.EMPTY] if none exists
+     */
+    fun getByType(type: Class<out MappingTransformer<*, *>>): MappingTransformerRegistration<*, *> {
+        return registrationsByType[type] ?: MappingTransformerRegistration.EMPTY
+    }
+
+    /**
+     * Get the default transformer registration for the given pair, or [MappingTransformerRegistration.EMPTY] if none exists
+     */
+    fun getDefault(fromClazz: Class<*>, toClazz: Class<*>): MappingTransformerRegistration<*, *> {
+        val resolved = resolvedDefaultRegistrations.get(fromClazz)
+        return resolved[toClazz] ?: resolved.computeIfAbsent(toClazz) { resolveDefault(fromClazz, toClazz) }
+    }
+
+    private fun resolveDefault(fromClazz: Class<*>, toClazz: Class<*>): MappingTransformerRegistration<*, *> {
+        val exactRegistration = defaultRegistrations[ClassPair(fromClazz, toClazz)]
+        if (exactRegistration != null) {
+            return exactRegistration
+        }
+        if (toClazz.isAssignableFrom(fromClazz)) {
+            return MappingTransformerRegistration.EMPTY
+        }
+        for (supertype in fromClazz.supertypes()) {
+            val registration = defaultRegistrations[ClassPair(supertype, toClazz)]
+            if (registration != null) {
+                return registration
+            }
+        }
+        return MappingTransformerRegistration.EMPTY
+    }
+
+    /**
+     * The superclasses and interfaces of this class, nearest first.
+     * [Object] is left out, so that catch-all registrations such as `Any -> String` only apply to exact matches and do not
+     * hide type mismatches.
+     */
+    private fun Class<*>.supertypes(): List<Class<*>> {
+        val result = LinkedHashSet<Class<*>>()
+        val queue = ArrayDeque<Class<*>>()
+        queue.add(this)
+        while (queue.isNotEmpty()) {
+            val clazz = queue.removeFirst()
+            val superclass = clazz.superclass
+            if (superclass != null && superclass != Any::class.java && result.add(superclass)) {
+                queue.add(superclass)
+            }
+            for (iface in clazz.interfaces) {
+                if (result.add(iface)) {
+                    queue.add(iface)
+                }
+            }
+        }
+        return result.toList()
+    }
+}
\ No newline at end of file
@@ -15,9 +15,13 @@ import dev.krud.shapeshift.condition.MappingCondition
 import dev.krud.shapeshift.dto.ResolvedMappedField
 import dev.krud.shapeshift.dto.TransformerCoordinates
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.IdentityNamingStrategy
+import dev.krud.shapeshift.naming.NamingStrategy
 import dev.krud.shapeshift.resolver.MappingDefinition
 import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.util.filterConflictingAutoMappings
 import dev.krud.shapeshift.util.getAutoMappings
+import dev.krud.shapeshift.util.getDeepAutoMappingDefinitions
 import dev.krud.shapeshift.util.getDeclaredFieldRecursive
 import java.lang.reflect.Field
 
@@ -27,6 +31,7 @@ import java.lang.reflect.Field
 class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class<out Any>) {
     private val resolvedMappedFields = mutableListOf<ResolvedMappedField>()
     private var autoMappingStrategy: AutoMappingStrategy = AutoMappingStrategy.NONE
+    private var namingStrategy: NamingStrategy = IdentityNamingStrategy
 
     /**
      * Automatically map all fields with the given strategy
@@ -36,6 +41,15 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
         return this
     }
 
+    /**
+     * Automatically map all fields with the given strategy, matching field names with the given naming strategy
+     */
+    fun autoMap(strategy: AutoMappingStrategy, namingStrategy: NamingStrategy): MappingDefinitionBuilder {
+        this.autoMappingStrategy = strategy
+        this.namingStrategy = namingStrategy
+        return this
+    }
+
     /**
      * Automatically map all fields with the given strategy with strategy [AutoMappingStrategy.BY_NAME_AND_TYPE]
      */
@@ -58,16 +72,12 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
      * Return a mapping definition for the fields defined in this builder
      */
     fun build(): MappingDefinition {
-        val autoMappedFields = getAutoMappings(fromClazz, toClazz, autoMappingStrategy)
-            .filter { autoResolvedMappedField ->
-                resolvedMappedFields.none {
-                    it.mapFromCoordinates.first() == autoResolvedMappedField.mapFromCoordinates.first() || it.mapToCoordinates.first() == autoResolvedMappedField.mapToCoordinates.first()
-                }
-            }
+        val autoMappedFields = filterConflictingAutoMappings(resolvedMappedFields, getAutoMappings(fromClazz, toClazz, autoMappingStrategy, namingStrategy))
         return MappingDefinition(
             fromClazz,
             toClazz,
-            resolvedMappedFields + autoMappedFields
+            resolvedMappedFields + autoMappedFields,
+            getDeepAutoMappingDefinitions(fromClazz, toClazz, autoMappingStrategy, namingStrategy)
         )
     }
 
@@ -77,6 +87,8 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
         private var transformer: MappingTransformer<out Any, out Any>? = null
         private var transformerCoordinates: TransformerCoordinates = TransformerCoordinates.NONE
         private var mappingStrategy: MappingStrategy? = null
+        private var mergeKey: String? = null
+        private var reversible: Boolean = false
 
         /**
          * @see MappingDefinitionBuilder.autoMap
@@ -86,6 +98,14 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
             return this@MappingDefinitionBuilder.autoMap(strategy)
         }
 
+        /**
+         * @see MappingDefinitionBuilder.autoMap
+         */
+        fun autoMap(strategy: AutoMappingStrategy, namingStrategy: NamingStrategy): MappingDefinitionBuilder {
+            buildAndAddSelf()
+            return this@MappingDefinitionBuilder.autoMap(strategy, namingStrategy)
+        }
+
         /**
          * @see MappingDefinitionBuilder.autoMap
          */
@@ -146,6 +166,23 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
             return this
         }
 
+        /**
+         * Merge the mapped collection into the existing target collection, matching elements by the [mergeKey] field
+         */
+        fun withMergeKey(mergeKey: String): MapFieldBuilder {
+            this.mergeKey = mergeKey
+            return this
+        }
+
+        /**
+         * Also map this field in the opposite direction, from the target class to the source class.
+         * The transformer and condition of this mapped field only apply to the original direction
+         */
+        fun reversible(): MapFieldBuilder {
+            this.reversible = true
+            return this
+        }
+
         /**
          * @see MappingDefinitionBuilder.build
          */
@@ -162,7 +199,9 @@ class MappingDefinitionBuilder(val fromClazz: Class<out Any>, val toClazz: Class
                 transformer,
                 conditionClazz,
                 condition,
-                mappingStrategy
+                mappingStrategy,
+                mergeKey,
+                reversible
             )
             this@MappingDefinitionBuilder.resolvedMappedFields.add(resolvedMappedField)
         }
@@ -0,0 +1,24 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.decorator
+
+/**
+ * A decorator that depends on specific source fields.
+ * Unlike other decorators, it is also applied by [dev.krud.shapeshift.ShapeShift.remap] when one of the fields it depends on changed
+ * @param From The type of the from object
+ * @param To The type of the from object
+ **/
+interface DependentMappingDecorator<From : Any, To : Any> : MappingDecorator<From, To> {
+    /**
+     * The names of the source fields this decorator depends on, an empty set applies the decorator on every remap
+     */
+    val dependsOn: Set<String>
+}
\ No newline at end of file
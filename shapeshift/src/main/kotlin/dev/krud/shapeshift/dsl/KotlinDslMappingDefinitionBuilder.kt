@@ -17,9 +17,13 @@ import dev.krud.shapeshift.decorator.MappingDecorator
 import dev.krud.shapeshift.dto.ResolvedMappedField
 import dev.krud.shapeshift.dto.TransformerCoordinates
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.IdentityNamingStrategy
+import dev.krud.shapeshift.naming.NamingStrategy
 import dev.krud.shapeshift.resolver.MappingDefinition
 import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.util.filterConflictingAutoMappings
 import dev.krud.shapeshift.util.getAutoMappings
+import dev.krud.shapeshift.util.getDeepAutoMappingDefinitions
 import kotlin.reflect.KClass
 import kotlin.reflect.KProperty1
 import kotlin.reflect.jvm.javaField
@@ -35,15 +39,17 @@ class KotlinDslMappingDefinitionBuilder<RootFrom : Any, RootTo : Any>(
     private val fieldMappings = mutableListOf<FieldMapping<*, *>>()
     private val decoratorRegistrations: MutableSet<MappingDecoratorRegistration<RootFrom, RootTo>> = mutableSetOf()
     private var autoMappingStrategy: AutoMappingStrategy = AutoMappingStrategy.NONE
+    private var namingStrategy: NamingStrategy = IdentityNamingStrategy
 
     /**
-     * Enable automapping with the given strategy
+     * Enable automapping with the given strategy, matching field names with the given naming strategy
      */
-    fun autoMap(strategy: AutoMappingStrategy) {
+    fun autoMap(strategy: AutoMappingStrategy, namingStrategy: NamingStrategy = IdentityNamingStrategy) {
         if (strategy == AutoMappingStrategy.NONE) {
             error("Auto mapping strategy cannot be NONE")
         }
         autoMappingStrategy = strategy
+        this.namingStrategy = namingStrategy
     }
 
     /**
@@ -149,6 +155,30 @@ class KotlinDslMappingDefinitionBuilder<RootFrom : Any, RootTo : Any>(
         return this
     }
 
+    /**
+     * Merge the mapped collection into the existing target collection, matching elements by the [mergeKey] field
+     */
+    infix fun <From : Any?, To : Any?> FieldMapping<From, out To>.mergeBy(mergeKey: String): FieldMapping<From, out To> {
+        this.mergeKey = mergeKey
+        return this
+    }
+
+    /**
+     * Merge the mapped collection into the existing target collection, matching elements by the [mergeKey] field
+     */
+    infix fun <From : Any?, To : Any?> FieldMapping<From, out To>.mergeBy(mergeKey: KProperty1<*, *>): FieldMapping<From, out To> {
+        return mergeBy(mergeKey.name)
+    }
+
+    /**
+     * Set whether the given mapping is also applied in the opposite direction, from the target class to the source class.
+     * The transformer and condition of the mapping only apply to the original direction
+     */
+    infix fun <From : Any?, To : Any?> FieldMapping<From, out To>.reversible(reversible: Boolean): FieldMapping<From, out To> {
+        this.reversible = reversible
+        return this
+    }
+
     fun build(): Result {
         val resolvedMappedFields = fieldMappings.map { fieldMapping ->
             ResolvedMappedField(
@@ -162,22 +192,20 @@ class KotlinDslMappingDefinitionBuilder<RootFrom : Any, RootTo : Any>(
                 fieldMapping.transformer,
                 fieldMapping.conditionClazz?.java,
                 fieldMapping.condition,
-                fieldMapping.mappingStrategy
+                fieldMapping.mappingStrategy,
+                fieldMapping.mergeKey,
+                fieldMapping.reversible
             )
         }
             .toMutableList()
 
-        resolvedMappedFields += getAutoMappings(fromClazz, toClazz, autoMappingStrategy)
-            .filter { autoResolvedMappedField ->
-                resolvedMappedFields.none {
-                    it.mapFromCoordinates.first() == autoResolvedMappedField.mapFromCoordinates.first() || it.mapToCoordinates.first() == autoResolvedMappedField.mapToCoordinates.first()
-                }
-            }
+        resolvedMappedFields += filterConflictingAutoMappings(resolvedMappedFields, getAutoMappings(fromClazz, toClazz, autoMappingStrategy, namingStrategy))
         return Result(
             MappingDefinition(
                 fromClazz,
                 toClazz,
-                resolvedMappedFields
+                resolvedMappedFields,
+                getDeepAutoMappingDefinitions(fromClazz, toClazz, autoMappingStrategy, namingStrategy)
             ),
             decoratorRegistrations
         )
@@ -200,7 +228,9 @@ class KotlinDslMappingDefinitionBuilder<RootFrom : Any, RootTo : Any>(
             var transformer: MappingTransformer<out FromValue, out ToValue>?,
             var conditionClazz: KClass<out MappingCondition<out FromValue>>?,
             var condition: MappingCondition<out FromValue>?,
-            var mappingStrategy: MappingStrategy?
+            var mappingStrategy: MappingStrategy?,
+            var mergeKey: String? = null,
+            var reversible: Boolean = false
         )
 
         data class Result(
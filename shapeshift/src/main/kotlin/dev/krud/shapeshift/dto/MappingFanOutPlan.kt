@@ -0,0 +1,46 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.dto
+
+import java.lang.reflect.Field
+
+/**
+ * The fields of several mapping structures from the same source class, grouped by the source path they are mapped from
+ */
+internal class MappingFanOutPlan(
+    val structures: List<MappingStructure>,
+    val steps: List<Step>
+) {
+    class Step(
+        val mapFromCoordinates: List<Field>,
+        val targets: List<Target>
+    )
+
+    class Target(
+        val index: Int,
+        val resolvedMappedField: ResolvedMappedField
+    )
+
+    companion object {
+        fun of(structures: List<MappingStructure>): MappingFanOutPlan {
+            val targetsBySource = LinkedHashMap<List<Field>, MutableList<Target>>()
+            for ((index, structure) in structures.withIndex()) {
+                for (resolvedMappedField in structure.resolvedMappedFields) {
+                    targetsBySource.getOrPut(resolvedMappedField.mapFromCoordinates) { mutableListOf() } += Target(index, resolvedMappedField)
+                }
+            }
+            return MappingFanOutPlan(
+                structures,
+                targetsBySource.map { (mapFromCoordinates, targets) -> Step(mapFromCoordinates, targets) }
+            )
+        }
+    }
+}
\ No newline at end of file
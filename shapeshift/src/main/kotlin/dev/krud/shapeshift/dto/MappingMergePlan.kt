@@ -0,0 +1,43 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.dto
+
+import dev.krud.shapeshift.enums.MergePrecedence
+import java.lang.reflect.Field
+
+/**
+ * The fields of several mapping structures to the same target class, grouped by target field. The candidates of each target
+ * field are ordered by [MergePrecedence], and each is paired with the index of its source
+ */
+internal class MappingMergePlan(
+    val structures: List<MappingStructure>,
+    val candidates: List<List<IndexedValue<ResolvedMappedField>>>
+) {
+    companion object {
+        fun of(structures: List<MappingStructure>, precedence: MergePrecedence): MappingMergePlan {
+            val candidates = LinkedHashMap<List<Field>, MutableList<IndexedValue<ResolvedMappedField>>>()
+            for ((index, structure) in structures.withIndex()) {
+                for (resolvedMappedField in structure.resolvedMappedFields) {
+                    candidates.getOrPut(resolvedMappedField.mapToCoordinates) { mutableListOf() } += IndexedValue(index, resolvedMappedField)
+                }
+            }
+            return MappingMergePlan(
+                structures,
+                candidates.values.map {
+                    when (precedence) {
+                        MergePrecedence.FIRST_WINS -> it
+                        MergePrecedence.LAST_WINS -> it.asReversed()
+                    }
+                }
+            )
+        }
+    }
+}
\ No newline at end of file
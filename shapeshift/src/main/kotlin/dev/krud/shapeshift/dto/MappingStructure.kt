@@ -9,4 +9,36 @@
  */
 package dev.krud.shapeshift.dto
 
-internal class MappingStructure(var sourceClazz: Class<*>, var targetClazz: Class<*>, val resolvedMappedFields: List<ResolvedMappedField>)
\ No newline at end of file
+import dev.krud.shapeshift.MappingProjection
+import dev.krud.shapeshift.decorator.DependentMappingDecorator
+import dev.krud.shapeshift.decorator.MappingDecorator
+import dev.krud.shapeshift.util.concurrentMapOf
+import java.util.concurrent.ConcurrentMap
+
+internal class MappingStructure(
+    var sourceClazz: Class<*>,
+    var targetClazz: Class<*>,
+    val resolvedMappedFields: List<ResolvedMappedField>,
+    val decorators: List<MappingDecorator<*, *>>
+) {
+    /**
+     * The fields selected by each projection used with this structure, compiled on first use. Only the first
+     * [MAX_PROJECTIONS] projections are cached
+     */
+    val projectedFields: ConcurrentMap<MappingProjection, List<ProjectedMappedField>> = concurrentMapOf()
+
+    /**
+     * The fields indexed by the name of the root source field they are mapped from, used when remapping changed fields
+     */
+    val fieldsBySourceRoot: Map<String, List<ResolvedMappedField>> by lazy {
+        resolvedMappedFields.groupBy { it.mapFromCoordinates.first().name }
+    }
+
+    val dependentDecorators: List<DependentMappingDecorator<*, *>> by lazy {
+        decorators.filterIsInstance<DependentMappingDecorator<*, *>>()
+    }
+
+    companion object {
+        const val MAX_PROJECTIONS = 64
+    }
+}
\ No newline at end of file
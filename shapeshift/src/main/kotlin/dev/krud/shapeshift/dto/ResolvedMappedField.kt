@@ -12,15 +12,52 @@ package dev.krud.shapeshift.dto
 
 import dev.krud.shapeshift.MappingStrategy
 import dev.krud.shapeshift.condition.MappingCondition
+import dev.krud.shapeshift.transformer.ImplicitCollectionMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMapMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformer
 import java.lang.reflect.Field
 
-data class ResolvedMappedField(
+data class ResolvedMappedField @JvmOverloads constructor(
     val mapFromCoordinates: List<Field>,
     val mapToCoordinates: List<Field>,
     val transformerCoordinates: TransformerCoordinates = TransformerCoordinates.NONE,
     val transformer: MappingTransformer<*, *>?,
     val conditionClazz: Class<out MappingCondition<*>>?,
     val condition: MappingCondition<*>?,
-    val overrideMappingStrategy: MappingStrategy?
-)
\ No newline at end of file
+    val overrideMappingStrategy: MappingStrategy?,
+    /**
+     * The name of the field used to match source and target elements when merging a collection into an existing one
+     */
+    val mergeKey: String? = null,
+    /**
+     * Whether the inverse of this field is also mapped when mapping from the target class to the source class
+     */
+    val reversible: Boolean = false
+) {
+    /**
+     * Get the inverse of this field, mapping from its target coordinates to its source coordinates.
+     * The implicit transformers are kept as they apply in both directions, other transformers and conditions are dropped so
+     * the default transformer registered for the inverse types, if any, is used instead
+     */
+    internal fun reversed(): ResolvedMappedField {
+        return ResolvedMappedField(
+            mapToCoordinates,
+            mapFromCoordinates,
+            if (transformerCoordinates.type in IMPLICIT_TRANSFORMERS) transformerCoordinates else TransformerCoordinates.NONE,
+            null,
+            null,
+            null,
+            overrideMappingStrategy,
+            mergeKey
+        )
+    }
+
+    companion object {
+        private val IMPLICIT_TRANSFORMERS = setOf(
+            ImplicitMappingTransformer::class.java,
+            ImplicitCollectionMappingTransformer::class.java,
+            ImplicitMapMappingTransformer::class.java
+        )
+    }
+}
\ No newline at end of file
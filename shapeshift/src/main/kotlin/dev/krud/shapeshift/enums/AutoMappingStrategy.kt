@@ -27,5 +27,24 @@ enum class AutoMappingStrategy {
     /**
      * Automap by name and type
      */
-    BY_NAME_AND_TYPE
+    BY_NAME_AND_TYPE,
+
+    /**
+     * Automap by name, matching nested source fields to target fields named after their camel case path.
+     * For example, `address.city` is mapped to `addressCity`
+     */
+    FLATTEN,
+
+    /**
+     * Automap by name, matching source fields to nested target fields by their camel case path.
+     * For example, `addressCity` is mapped to `address.city`
+     */
+    UNFLATTEN,
+
+    /**
+     * Automap by name, planning the nested objects, collection elements, map entries and optional values of matching fields
+     * whose types differ as nested mappings which are automapped in turn. Once the annotated pair is resolved, the nested mappings
+     * apply to their pairs for which no fields are defined otherwise, also when mapped on their own
+     */
+    DEEP
 }
\ No newline at end of file
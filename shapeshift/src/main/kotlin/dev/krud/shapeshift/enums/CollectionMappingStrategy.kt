@@ -0,0 +1,35 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.enums
+
+/**
+ * The strategy used by [dev.krud.shapeshift.ShapeShift.mapCollection] to map the elements of a collection
+ */
+enum class CollectionMappingStrategy {
+    /**
+     * Map the elements one by one in iteration order
+     */
+    SEQUENTIAL,
+
+    /**
+     * Partition the elements by their runtime class and map each partition in its own loop with a single mapping structure,
+     * the results are returned in the original order.
+     * Best suited for large collections of mixed types, where it keeps every partition's transformer and field accesses monomorphic
+     */
+    GROUP_BY_TYPE,
+
+    /**
+     * Return an immutable view over the source elements, where each element is mapped on first access and memoized.
+     * Best suited for large collections of which only a few elements are read, such as a single page of a list.
+     * The source collection is not copied if it is a [List], and changes to it are not reflected in elements already mapped
+     */
+    LAZY
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.enums
+
+/**
+ * The rule used by [dev.krud.shapeshift.ShapeShift.mapMerged] to pick the source of a target field mapped from several sources
+ */
+enum class MergePrecedence {
+    /**
+     * The first source mapping the field wins. A source whose value is skipped, such as a null value with
+     * [dev.krud.shapeshift.MappingStrategy.MAP_NOT_NULL] or a value failing its condition, falls back to the next source
+     */
+    FIRST_WINS,
+
+    /**
+     * The last source mapping the field wins, as if the sources were mapped one after the other
+     */
+    LAST_WINS
+}
\ No newline at end of file
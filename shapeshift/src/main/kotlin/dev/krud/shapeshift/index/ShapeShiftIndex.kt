@@ -0,0 +1,91 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.index
+
+import dev.krud.shapeshift.util.ClassPair
+import java.io.InputStream
+import java.util.Properties
+
+/**
+ * The mapping pairs listed in the [INDEX_LOCATION] files written at build time by the shapeshift-index-processor annotation processor.
+ * Reading the index requires neither classpath scanning nor loading any class which is not listed in it
+ * @param targets The names of the target classes of each indexed source class
+ */
+class ShapeShiftIndex internal constructor(
+    val targets: Map<String, Set<String>>
+) {
+    /**
+     * Whether the index lists no pairs
+     */
+    val isEmpty: Boolean get() = targets.values.all { it.isEmpty() }
+
+    /**
+     * Load the classes of the indexed pairs with [classLoader], pairs whose classes cannot be loaded are skipped
+     */
+    @JvmOverloads
+    fun getClassPairs(classLoader: ClassLoader? = ShapeShiftIndex::class.java.classLoader): List<ClassPair<*, *>> {
+        val classPairs = mutableListOf<ClassPair<*, *>>()
+        for ((source, sourceTargets) in targets) {
+            val fromClazz = loadClass(source, classLoader) ?: continue
+            for (target in sourceTargets) {
+                val toClazz = loadClass(target, classLoader) ?: continue
+                classPairs += ClassPair(fromClazz, toClazz)
+            }
+        }
+        return classPairs
+    }
+
+    private fun loadClass(name: String, classLoader: ClassLoader?): Class<*>? {
+        return try {
+            Class.forName(name, false, classLoader)
+        } catch (e: ClassNotFoundException) {
+            null
+        } catch (e: LinkageError) {
+            null
+        }
+    }
+
+    companion object {
+        /**
+         * The location of the index files on the classpath
+         */
+        const val INDEX_LOCATION = "META-INF/shapeshift/index"
+
+        /**
+         * Load and merge every index file visible to [classLoader]
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun load(classLoader: ClassLoader? = ShapeShiftIndex::class.java.classLoader): ShapeShiftIndex {
+            val resources = classLoader?.getResources(INDEX_LOCATION) ?: ClassLoader.getSystemResources(INDEX_LOCATION)
+            val inputStreams = resources.toList().map { url -> { url.openStream() } }
+            return parse(inputStreams)
+        }
+
+        /**
+         * Parse and merge index files, each line of which maps a source class name to its comma separated target class names
+         */
+        internal fun parse(inputStreams: List<() -> InputStream>): ShapeShiftIndex {
+            val targets = mutableMapOf<String, MutableSet<String>>()
+            for (inputStream in inputStreams) {
+                val properties = Properties()
+                inputStream().use { properties.load(it) }
+                for (source in properties.stringPropertyNames()) {
+                    targets.getOrPut(source) { linkedSetOf() } += properties.getProperty(source)
+                        .split(',')
+                        .map { it.trim() }
+                        .filter { it.isNotEmpty() }
+                }
+            }
+            return ShapeShiftIndex(targets)
+        }
+    }
+}
\ No newline at end of file
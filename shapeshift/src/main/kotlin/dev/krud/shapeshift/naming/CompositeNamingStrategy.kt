@@ -0,0 +1,24 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.naming
+
+/**
+ * Apply several naming strategies in order, for example stripping a prefix before converting from snake case.
+ * To use with [dev.krud.shapeshift.resolver.annotation.AutoMapping], extend this class with a no-arg constructor
+ * @param strategies The strategies to apply
+ */
+open class CompositeNamingStrategy(vararg strategies: NamingStrategy) : NamingStrategy {
+    private val strategies = strategies.toList()
+
+    override fun normalize(name: String): String {
+        return strategies.fold(name) { normalizedName, strategy -> strategy.normalize(normalizedName) }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.naming
+
+/**
+ * Normalizes field names for auto mapping, fields whose normalized names are equal are mapped to one another
+ */
+fun interface NamingStrategy {
+    /**
+     * Normalize the given field name
+     * @param name The name of the field
+     * @return The normalized name
+     */
+    fun normalize(name: String): String
+}
+
+/**
+ * Convert a name delimited by [separator] such as `first_name` to camel case such as `firstName`.
+ * Names without the separator are returned as is
+ */
+internal fun separatedToCamelCase(name: String, separator: Char): String {
+    if (separator !in name) {
+        return name
+    }
+    val parts = name.split(separator).filter { it.isNotEmpty() }
+    if (parts.isEmpty()) {
+        return name
+    }
+    return buildString {
+        parts.forEachIndexed { index, part ->
+            val normalizedPart = if (part.all { !it.isLetter() || it.isUpperCase() }) part.lowercase() else part
+            if (index == 0) {
+                append(normalizedPart.replaceFirstChar { it.lowercaseChar() })
+            } else {
+                append(normalizedPart.replaceFirstChar { it.uppercaseChar() })
+            }
+        }
+    }
+}
\ No newline at end of file
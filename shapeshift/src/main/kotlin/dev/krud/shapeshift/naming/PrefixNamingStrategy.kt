@@ -0,0 +1,31 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.naming
+
+/**
+ * Match field names after stripping the first matching prefix, for example `mName` to `name` with the prefix `m`.
+ * A prefix ending with a letter or digit is only stripped when followed by an uppercase character, so that names such as
+ * `model` are left as is.
+ * To use with [dev.krud.shapeshift.resolver.annotation.AutoMapping], extend this class with a no-arg constructor
+ * @param prefixes The prefixes to strip
+ */
+open class PrefixNamingStrategy(vararg prefixes: String) : NamingStrategy {
+    private val prefixes = prefixes.toList()
+
+    override fun normalize(name: String): String {
+        val prefix = prefixes.firstOrNull { name.length > it.length && name.startsWith(it) && isBoundary(it, name[it.length]) } ?: return name
+        return name.substring(prefix.length).replaceFirstChar { it.lowercaseChar() }
+    }
+
+    private fun isBoundary(prefix: String, next: Char): Boolean {
+        return !prefix.last().isLetterOrDigit() || next.isUpperCase()
+    }
+}
\ No newline at end of file
@@ -12,8 +12,12 @@ package dev.krud.shapeshift.resolver
 
 import dev.krud.shapeshift.dto.ResolvedMappedField
 
-data class MappingDefinition(
+data class MappingDefinition @JvmOverloads constructor(
     val fromClazz: Class<*>,
     val toClazz: Class<*>,
-    val resolvedMappedFields: List<ResolvedMappedField>
+    val resolvedMappedFields: List<ResolvedMappedField>,
+    /**
+     * Definitions of the nested pairs reachable from this definition, used for pairs which are not defined otherwise
+     */
+    val nestedMappingDefinitions: List<MappingDefinition> = emptyList()
 )
\ No newline at end of file
@@ -10,10 +10,35 @@
 
 package dev.krud.shapeshift.resolver
 
+import dev.krud.shapeshift.util.ClassPair
+import dev.krud.shapeshift.util.filterConflictingReversedMappings
+
 class StaticMappingDefinitionResolver(
     private val mappingDefinitions: List<MappingDefinition>
 ) : MappingDefinitionResolver {
+    /**
+     * The mapping definitions keyed by their class pair, the first definition registered for a pair takes precedence
+     */
+    private val mappingDefinitionsByClassPair: Map<ClassPair<*, *>, MappingDefinition> = HashMap<ClassPair<*, *>, MappingDefinition>(mappingDefinitions.size * 2).apply {
+        for (mappingDefinition in mappingDefinitions) {
+            putIfAbsent(ClassPair(mappingDefinition.fromClazz, mappingDefinition.toClazz), mappingDefinition)
+        }
+    }
+
     override fun resolve(fromClazz: Class<*>, toClazz: Class<*>): MappingDefinition? {
-        return mappingDefinitions.find { it.fromClazz == fromClazz && it.toClazz == toClazz }
+        val mappingDefinition = mappingDefinitionsByClassPair[ClassPair(fromClazz, toClazz)]
+        val reversedMappedFields = mappingDefinitionsByClassPair[ClassPair(toClazz, fromClazz)]
+            ?.resolvedMappedFields
+            ?.filter { it.reversible }
+            ?.map { it.reversed() }
+        if (reversedMappedFields.isNullOrEmpty()) {
+            return mappingDefinition
+        }
+        if (mappingDefinition == null) {
+            return MappingDefinition(fromClazz, toClazz, reversedMappedFields)
+        }
+        return mappingDefinition.copy(
+            resolvedMappedFields = mappingDefinition.resolvedMappedFields + filterConflictingReversedMappings(mappingDefinition.resolvedMappedFields, reversedMappedFields)
+        )
     }
 }
\ No newline at end of file
@@ -14,15 +14,88 @@ import dev.krud.shapeshift.dto.ResolvedMappedField
 import dev.krud.shapeshift.dto.TransformerCoordinates
 import dev.krud.shapeshift.resolver.MappingDefinition
 import dev.krud.shapeshift.resolver.MappingDefinitionResolver
+import dev.krud.shapeshift.util.ClassPair
+import dev.krud.shapeshift.util.concurrentMapOf
+import dev.krud.shapeshift.util.filterConflictingAutoMappings
+import dev.krud.shapeshift.util.filterConflictingReversedMappings
 import dev.krud.shapeshift.util.getAutoMappings
+import dev.krud.shapeshift.util.getDeepAutoMappingDefinitions
+import dev.krud.shapeshift.util.getNamingStrategyInstance
 import dev.krud.shapeshift.util.getDeclaredFieldRecursive
 import dev.krud.shapeshift.util.splitIgnoreEmpty
 import java.lang.reflect.Field
 
 class AnnotationMappingDefinitionResolver : MappingDefinitionResolver {
+    private val hierarchyMappedFields: MutableMap<ClassPair<*, *>, List<ResolvedMappedField>> = concurrentMapOf()
+    private val declaredFieldMappedFields: MutableMap<ClassPair<*, *>, List<ResolvedMappedField>> = concurrentMapOf()
+    private val declaredAnnotations = object : ClassValue<DeclaredAnnotations>() {
+        override fun computeValue(type: Class<*>): DeclaredAnnotations = DeclaredAnnotations.of(type)
+    }
+    private val hasReversibleMappedFields = object : ClassValue<Boolean>() {
+        override fun computeValue(type: Class<*>): Boolean {
+            var clazz: Class<*>? = type
+            while (clazz != null) {
+                if (declaredAnnotations.get(clazz).mappedFields.any { it.mappedField.reversible }) {
+                    return true
+                }
+                clazz = clazz.superclass
+            }
+            return false
+        }
+    }
+
     override fun resolve(fromClazz: Class<*>, toClazz: Class<*>): MappingDefinition {
-        val mappedFieldReferences = getMappedFields(fromClazz, toClazz)
+        val resolvedMappedFields = getHierarchyMappedFields(fromClazz, toClazz).toMutableList()
+        var nestedMappingDefinitions = emptyList<MappingDefinition>()
+        val autoMapping = getEffectiveAutoMapping(fromClazz, toClazz)
+        if (autoMapping != null) {
+            val namingStrategy = autoMapping.namingStrategy.java.getNamingStrategyInstance()
+            resolvedMappedFields += filterConflictingAutoMappings(resolvedMappedFields, getAutoMappings(fromClazz, toClazz, autoMapping.strategy, namingStrategy))
+            nestedMappingDefinitions = getDeepAutoMappingDefinitions(fromClazz, toClazz, autoMapping.strategy, namingStrategy)
+        }
+        resolvedMappedFields += filterConflictingReversedMappings(resolvedMappedFields, getReversedMappedFields(fromClazz, toClazz))
+        return MappingDefinition(fromClazz, toClazz, resolvedMappedFields, nestedMappingDefinitions)
+    }
+
+    /**
+     * Get the inverse of the reversible mapped fields declared on [toClazz] and its superclasses for [fromClazz]
+     */
+    private fun getReversedMappedFields(fromClazz: Class<*>, toClazz: Class<*>): List<ResolvedMappedField> {
+        if (!hasReversibleMappedFields.get(toClazz)) {
+            return emptyList()
+        }
+        return getHierarchyMappedFields(toClazz, fromClazz)
+            .filter { it.reversible }
+            .map { it.reversed() }
+    }
+
+    /**
+     * Get the resolved mapped fields of [clazz] and its superclasses for [toClazz].
+     * Type annotations are resolved against [clazz], as their paths may name fields declared by a subclass
+     */
+    private fun getHierarchyMappedFields(clazz: Class<*>, toClazz: Class<*>): List<ResolvedMappedField> {
+        val key = ClassPair(clazz, toClazz)
+        val cached = hierarchyMappedFields[key]
+        if (cached != null) {
+            return cached
+        }
+        val result = mutableListOf<ResolvedMappedField>()
+        var current: Class<*>? = clazz
+        while (current != null) {
+            result += resolveMappedFields(getDeclaredMappedFields(current, toClazz).filter { it.field == null }, clazz, toClazz)
+            result += getDeclaredFieldMappedFields(current, toClazz)
+            current = current.superclass
+        }
+        return hierarchyMappedFields.putIfAbsent(key, result) ?: result
+    }
 
+    private fun getDeclaredFieldMappedFields(clazz: Class<*>, toClazz: Class<*>): List<ResolvedMappedField> {
+        return declaredFieldMappedFields.computeIfAbsent(ClassPair(clazz, toClazz)) {
+            resolveMappedFields(getDeclaredMappedFields(clazz, toClazz).filter { it.field != null }, clazz, toClazz)
+        }
+    }
+
+    private fun resolveMappedFields(mappedFieldReferences: List<MappedFieldReference>, fromClazz: Class<*>, toClazz: Class<*>): List<ResolvedMappedField> {
         val resolvedMappedFields = mutableListOf<ResolvedMappedField>()
         for ((mappedField, field) in mappedFieldReferences) {
             val transformerCoordinates = TransformerCoordinates.ofType(mappedField.transformer.java)
@@ -47,27 +120,21 @@ class AnnotationMappingDefinitionResolver : MappingDefinitionResolver {
                 null,
                 conditionClazz?.java,
                 null,
-                mappedField.overrideMappingStrategy
+                mappedField.overrideMappingStrategy,
+                mappedField.mergeKey.ifBlank { null },
+                mappedField.reversible
             )
         }
-        resolvedMappedFields += generateAutoMappings(fromClazz, toClazz).filter { autoResolvedMappedField ->
-            resolvedMappedFields.none {
-                it.mapFromCoordinates.first() == autoResolvedMappedField.mapFromCoordinates.first() || it.mapToCoordinates.first() == autoResolvedMappedField.mapToCoordinates.first()
-            }
-        }
-        return MappingDefinition(fromClazz, toClazz, resolvedMappedFields)
+        return resolvedMappedFields
     }
 
-    private fun generateAutoMappings(fromClazz: Class<*>, toClazz: Class<*>): List<ResolvedMappedField> {
-        val autoMappingAnnotations = fromClazz.getDeclaredAnnotationsByType(AutoMapping::class.java)
-
-        if (autoMappingAnnotations.isEmpty()) {
-            return emptyList()
-        }
-
-        val effectiveAnnotation = autoMappingAnnotations.firstOrNull { it.target.java == toClazz }
-            ?: (autoMappingAnnotations.firstOrNull { it.target.java == Nothing::class.java } ?: return emptyList())
-        return getAutoMappings(fromClazz, toClazz, effectiveAnnotation.strategy)
+    /**
+     * Get the [AutoMapping] declared on [fromClazz] for [toClazz], an explicit target takes precedence over an implicit one
+     */
+    private fun getEffectiveAutoMapping(fromClazz: Class<*>, toClazz: Class<*>): AutoMapping? {
+        val autoMappingAnnotations = declaredAnnotations.get(fromClazz).autoMappings
+        return autoMappingAnnotations.firstOrNull { it.target.java == toClazz }
+            ?: autoMappingAnnotations.firstOrNull { it.target.java == Nothing::class.java }
     }
 
     /**
@@ -89,51 +156,49 @@ class AnnotationMappingDefinitionResolver : MappingDefinitionResolver {
         return listOf(field) + resolveNodesToFields(nodes.drop(1), nextField, nextField.type)
     }
 
-    private fun getMappedFields(fromClass: Class<*>, toClass: Class<*>): List<MappedFieldReference> {
-        var clazz: Class<*>? = fromClass
-        val result = mutableListOf<MappedFieldReference>()
-        while (clazz != null) {
-            val defaultMappingTarget = clazz.getDeclaredAnnotation(DefaultMappingTarget::class.java)
-            val defaultToClass: Class<*> = defaultMappingTarget?.value?.java ?: Nothing::class.java
-            val fields = clazz.declaredFields
-            result += clazz.getDeclaredAnnotationsByType(MappedField::class.java)
-                .filter { mappedField ->
-                    try {
-                        return@filter isOfType(defaultToClass, mappedField.target.java, toClass)
-                    } catch (e: IllegalStateException) {
-                        error("Could not create entity structure for <" + fromClass.simpleName + ", " + toClass.simpleName + ">: " + e.message)
-                    }
-                }
-                .map { MappedFieldReference(it) }
-            for (field in fields) {
-                result += field.getDeclaredAnnotationsByType(MappedField::class.java)
-                    .filter { mappedField ->
-                        try {
-                            return@filter isOfType(defaultToClass, mappedField.target.java, toClass)
-                        } catch (e: IllegalStateException) {
-                            throw IllegalStateException("Could not create entity structure for <" + fromClass.simpleName + ", " + toClass.simpleName + ">: " + e.message)
-                        }
-                    }
-                    .map { MappedFieldReference(it, field) }
-            }
-            clazz = clazz.superclass
+    private fun getDeclaredMappedFields(clazz: Class<*>, toClass: Class<*>): List<MappedFieldReference> {
+        return declaredAnnotations.get(clazz).mappedFields.filter { mappedFieldReference ->
+            val target = mappedFieldReference.target
+                ?: error("Could not create entity structure for <" + clazz.simpleName + ", " + toClass.simpleName + ">: No mapping target or default mapping target specified")
+            target.isAssignableFrom(toClass)
         }
-
-        return result
     }
 
-    private fun isOfType(defaultToClass: Class<*>, fromClass: Class<*>, toClass: Class<*>): Boolean {
-        var trueFromClass: Class<*> = fromClass
-        if (trueFromClass == Nothing::class.java) {
-            check(defaultToClass != Nothing::class.java) { "No mapping target or default mapping target specified" }
-            trueFromClass = defaultToClass
+    /**
+     * The mapping annotations declared on a single class and its fields
+     */
+    private class DeclaredAnnotations(
+        val mappedFields: List<MappedFieldReference>,
+        val autoMappings: Array<AutoMapping>
+    ) {
+        companion object {
+            fun of(clazz: Class<*>): DeclaredAnnotations {
+                val defaultMappingTarget = clazz.getDeclaredAnnotation(DefaultMappingTarget::class.java)
+                val defaultToClass: Class<*>? = defaultMappingTarget?.value?.java
+                val mappedFields = mutableListOf<MappedFieldReference>()
+                mappedFields += clazz.getDeclaredAnnotationsByType(MappedField::class.java)
+                    .map { MappedFieldReference(it, null, it.getEffectiveTarget(defaultToClass)) }
+                for (field in clazz.declaredFields) {
+                    mappedFields += field.getDeclaredAnnotationsByType(MappedField::class.java)
+                        .map { MappedFieldReference(it, field, it.getEffectiveTarget(defaultToClass)) }
+                }
+                return DeclaredAnnotations(mappedFields, clazz.getDeclaredAnnotationsByType(AutoMapping::class.java))
+            }
+
+            /**
+             * Get the target of this mapped field, or [defaultToClass] if it does not declare one. Null if neither is specified
+             */
+            private fun MappedField.getEffectiveTarget(defaultToClass: Class<*>?): Class<*>? {
+                val target = target.java
+                return if (target == Nothing::class.java) defaultToClass else target
+            }
         }
-        return trueFromClass.isAssignableFrom(toClass)
     }
 
     private data class MappedFieldReference(
         val mappedField: MappedField,
-        val field: Field? = null
+        val field: Field? = null,
+        val target: Class<*>? = null
     )
 
     companion object {
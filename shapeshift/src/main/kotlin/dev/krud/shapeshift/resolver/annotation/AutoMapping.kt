@@ -11,8 +11,17 @@
 package dev.krud.shapeshift.resolver.annotation
 
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.IdentityNamingStrategy
+import dev.krud.shapeshift.naming.NamingStrategy
 import kotlin.reflect.KClass
 
 @Repeatable
 @Target(AnnotationTarget.ANNOTATION_CLASS, AnnotationTarget.CLASS)
-annotation class AutoMapping(val target: KClass<*> = Nothing::class, val strategy: AutoMappingStrategy)
\ No newline at end of file
+annotation class AutoMapping(
+    val target: KClass<*> = Nothing::class,
+    val strategy: AutoMappingStrategy,
+    /**
+     * The naming strategy used to match field names, must be a Kotlin object or have a no-arg constructor
+     */
+    val namingStrategy: KClass<out NamingStrategy> = IdentityNamingStrategy::class
+)
\ No newline at end of file
@@ -49,5 +49,18 @@ annotation class MappedField(
     /**
      * An override mapping strategy to use in lieu of the default
      */
-    val overrideMappingStrategy: MappingStrategy = MappingStrategy.NONE
+    val overrideMappingStrategy: MappingStrategy = MappingStrategy.NONE,
+
+    /**
+     * (Optional) The name of a field present on the elements of both collections.
+     * If set, a collection mapped into an existing mutable target collection is merged into it, elements with matching keys are
+     * updated in place, new elements are added and elements missing from the source are removed
+     */
+    val mergeKey: String = "",
+
+    /**
+     * Whether the field is also mapped in the opposite direction, from the target class to the annotated class.
+     * Transformers and conditions only apply to the original direction
+     */
+    val reversible: Boolean = false
 )
\ No newline at end of file
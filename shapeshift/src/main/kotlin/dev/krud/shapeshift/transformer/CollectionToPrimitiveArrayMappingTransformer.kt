@@ -0,0 +1,77 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.transformer
+
+import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+
+/**
+ * Maps a collection of boxed values to the primitive array type of the target field.
+ * Numeric elements are converted to the component type of the array, following the same rules as the `NumberTo*` transformers
+ */
+class CollectionToPrimitiveArrayMappingTransformer : MappingTransformer<Collection<Any>, Any> {
+    override fun transform(context: MappingTransformerContext<out Collection<Any>>): Any? {
+        val value = context.originalValue ?: return null
+        var index = 0
+        return when (context.toField.type.componentType) {
+            Int::class.javaPrimitiveType -> {
+                val result = IntArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Int::class.javaObjectType).toInt()
+                result
+            }
+            Long::class.javaPrimitiveType -> {
+                val result = LongArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Long::class.javaObjectType).toLong()
+                result
+            }
+            Double::class.javaPrimitiveType -> {
+                val result = DoubleArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Double::class.javaObjectType).toDouble()
+                result
+            }
+            Float::class.javaPrimitiveType -> {
+                val result = FloatArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Float::class.javaObjectType).toFloat()
+                result
+            }
+            Short::class.javaPrimitiveType -> {
+                val result = ShortArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Short::class.javaObjectType).toShort()
+                result
+            }
+            Byte::class.javaPrimitiveType -> {
+                val result = ByteArray(value.size)
+                for (element in value) result[index++] = context.toNumber(element, Byte::class.javaObjectType).toByte()
+                result
+            }
+            Char::class.javaPrimitiveType -> {
+                val result = CharArray(value.size)
+                for (element in value) result[index++] = context.convert(element, Char::class.javaObjectType) as Char
+                result
+            }
+            Boolean::class.javaPrimitiveType -> {
+                val result = BooleanArray(value.size)
+                for (element in value) result[index++] = context.convert(element, Boolean::class.javaObjectType) as Boolean
+                result
+            }
+            else -> throw IllegalArgumentException("${context.toField.type} is not a primitive array")
+        }
+    }
+
+    private fun MappingTransformerContext<*>.toNumber(element: Any?, elementClazz: Class<*>): Number {
+        return element as? Number ?: convert(element, elementClazz) as Number
+    }
+
+    private fun MappingTransformerContext<*>.convert(element: Any?, elementClazz: Class<*>): Any {
+        return element?.let { shapeShift.convertElement(it, elementClazz, this) }
+            ?: throw IllegalArgumentException("Cannot map a null element of ${fromField.name} to an array of ${toField.type.componentType}")
+    }
+}
\ No newline at end of file
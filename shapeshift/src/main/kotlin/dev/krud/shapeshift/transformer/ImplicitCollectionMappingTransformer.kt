@@ -12,29 +12,41 @@ package dev.krud.shapeshift.transformer
 
 import dev.krud.shapeshift.transformer.base.MappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformerContext
-import java.lang.reflect.ParameterizedType
+import dev.krud.shapeshift.util.concurrentMapOf
+import dev.krud.shapeshift.util.findGenericAtPosition
+import dev.krud.shapeshift.util.getCollectionFactory
+import java.lang.reflect.Field
 
 class ImplicitCollectionMappingTransformer : MappingTransformer<Collection<Any>, Collection<Any>> {
+    private val collectionTargets: MutableMap<Field, CollectionTarget> = concurrentMapOf()
+
     override fun transform(context: MappingTransformerContext<out Collection<Any>>): Collection<Any>? {
         context.originalValue ?: return null
-        val type = context.toField?.genericType as? ParameterizedType ?: return null
-        val collectionType = type.actualTypeArguments[0] as? Class<*> ?: return null
-        val baseMapping = context.originalValue.map { context.shapeShift.map(it, collectionType) }
-        return when (collectionType.kotlin) {
-            List::class -> {
-                baseMapping
-            }
-            MutableList::class -> {
-                baseMapping.toMutableList()
-            }
-            Set::class -> {
-                baseMapping.toSet()
-            }
-            MutableSet::class -> {
-                baseMapping.toMutableSet()
-            }
-            else -> {
-                baseMapping
+        val collectionTarget = collectionTargets.computeIfAbsent(context.toField) { CollectionTarget.of(it) }
+        val elementClazz = collectionTarget.elementClazz ?: return null
+        val fromElementClazz = context.fromField.findGenericAtPosition(0)
+        val result = collectionTarget.factory(context.originalValue.size)
+        if (fromElementClazz != null && context.shapeShift.isIdentityMapping(fromElementClazz, elementClazz)) {
+            result.addAll(context.originalValue)
+            return result as Collection<Any>
+        }
+        val elementMapper = context.shapeShift.elementMapper(elementClazz, context, context.projection)
+        for (element in context.originalValue as Collection<Any?>) {
+            result += element?.let(elementMapper)
+        }
+        return result as Collection<Any>
+    }
+
+    /**
+     * The element type and collection factory of a target collection field
+     */
+    private class CollectionTarget(
+        val elementClazz: Class<*>?,
+        val factory: (Int) -> MutableCollection<Any?>
+    ) {
+        companion object {
+            fun of(field: Field): CollectionTarget {
+                return CollectionTarget(field.findGenericAtPosition(0), field.type.getCollectionFactory())
             }
         }
     }
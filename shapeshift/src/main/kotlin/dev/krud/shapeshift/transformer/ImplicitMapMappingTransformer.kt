@@ -0,0 +1,65 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.transformer
+
+import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+import dev.krud.shapeshift.util.concurrentMapOf
+import dev.krud.shapeshift.util.findGenericAtPosition
+import dev.krud.shapeshift.util.getMapFactory
+import java.lang.reflect.Field
+
+class ImplicitMapMappingTransformer : MappingTransformer<Map<*, *>, Map<*, *>> {
+    private val mapTargets: MutableMap<Field, MapTarget> = concurrentMapOf()
+
+    override fun transform(context: MappingTransformerContext<out Map<*, *>>): Map<*, *>? {
+        context.originalValue ?: return null
+        val mapTarget = mapTargets.computeIfAbsent(context.toField) { MapTarget.of(it) }
+        val keyClazz = mapTarget.keyClazz ?: return null
+        val valueClazz = mapTarget.valueClazz ?: return null
+        val shapeShift = context.shapeShift
+        val mapKeys = !isIdentity(context, 0, keyClazz)
+        val mapValues = !isIdentity(context, 1, valueClazz)
+        val result = mapTarget.factory(context.originalValue.size)
+        if (!mapKeys && !mapValues) {
+            result.putAll(context.originalValue)
+            return result
+        }
+        val keyMapper = if (mapKeys) shapeShift.elementMapper(keyClazz, context) else null
+        val valueMapper = if (mapValues) shapeShift.elementMapper(valueClazz, context, context.projection) else null
+        for ((key, value) in context.originalValue) {
+            val toKey = if (keyMapper != null) key?.let(keyMapper) else key
+            val toValue = if (valueMapper != null) value?.let(valueMapper) else value
+            result[toKey] = toValue
+        }
+        return result
+    }
+
+    private fun isIdentity(context: MappingTransformerContext<*>, position: Int, toClazz: Class<*>): Boolean {
+        val fromClazz = context.fromField.findGenericAtPosition(position) ?: return false
+        return context.shapeShift.isIdentityMapping(fromClazz, toClazz)
+    }
+
+    /**
+     * The key and value types and map factory of a target map field
+     */
+    private class MapTarget(
+        val keyClazz: Class<*>?,
+        val valueClazz: Class<*>?,
+        val factory: (Int) -> MutableMap<Any?, Any?>
+    ) {
+        companion object {
+            fun of(field: Field): MapTarget {
+                return MapTarget(field.findGenericAtPosition(0), field.findGenericAtPosition(1), field.type.getMapFactory())
+            }
+        }
+    }
+}
\ No newline at end of file
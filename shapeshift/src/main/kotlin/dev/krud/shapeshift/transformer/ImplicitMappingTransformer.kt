@@ -15,7 +15,17 @@ import dev.krud.shapeshift.transformer.base.MappingTransformerContext
 
 class ImplicitMappingTransformer() : MappingTransformer<Any, Any> {
     override fun transform(context: MappingTransformerContext<out Any>): Any? {
-        context.originalValue ?: return null
-        return context.shapeShift.map(context.originalValue, context.toField.type)
+        val fromObject = context.originalValue ?: return null
+        val shapeShift = context.shapeShift
+        val toClazz = with(shapeShift) { context.toField.getTrueType() }
+        val toObject = context.existingValue
+            ?.takeIf { shapeShift.getTargetClass(fromObject::class.java, toClazz).isInstance(it) }
+        val projection = context.projection
+        return when {
+            toObject == null && projection == null -> shapeShift.map(fromObject, toClazz)
+            toObject == null -> shapeShift.map(fromObject, toClazz, projection!!)
+            projection == null -> shapeShift.map(fromObject, toObject)
+            else -> shapeShift.map(fromObject, toObject, projection)
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.transformer
+
+import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+import dev.krud.shapeshift.util.findGenericAtPosition
+
+/**
+ * Maps a primitive array to a read-only list backed by a copy of the array.
+ * The array is copied in bulk and elements are only boxed when read from the list
+ */
+class PrimitiveArrayToListMappingTransformer : MappingTransformer<Any, List<Any>> {
+    override fun transform(context: MappingTransformerContext<out Any>): List<Any>? {
+        val list: List<Any> = when (val value = context.originalValue) {
+            null -> return null
+            is IntArray -> value.copyOf().asList()
+            is LongArray -> value.copyOf().asList()
+            is DoubleArray -> value.copyOf().asList()
+            is FloatArray -> value.copyOf().asList()
+            is ShortArray -> value.copyOf().asList()
+            is ByteArray -> value.copyOf().asList()
+            is CharArray -> value.copyOf().asList()
+            is BooleanArray -> value.copyOf().asList()
+            else -> throw IllegalArgumentException("${value::class.java} is not a primitive array")
+        }
+        val elementClazz = context.toField.findGenericAtPosition(0)?.kotlin?.javaObjectType
+        if (elementClazz == null || list.isEmpty() || elementClazz.isInstance(list[0])) {
+            return list
+        }
+        val result = ArrayList<Any?>(list.size)
+        for (element in list) {
+            result += context.shapeShift.convertElement(element, elementClazz, context)
+        }
+        return result as List<Any>
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.transformer
+
+import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+
+/**
+ * Converts between numeric primitive arrays (byte, short, int, long, float, double) in a single pass, without boxing.
+ * Narrowing conversions follow the Kotlin `Number.toX()` semantics
+ */
+class PrimitiveArrayToPrimitiveArrayMappingTransformer : MappingTransformer<Any, Any> {
+    override fun transform(context: MappingTransformerContext<out Any>): Any? {
+        val value = context.originalValue ?: return null
+        val size = java.lang.reflect.Array.getLength(value)
+        val componentType = context.toField.type.componentType
+        return when (componentType) {
+            Int::class.javaPrimitiveType -> IntArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> for (i in 0 until size) result[i] = value[i].toInt()
+                    is ShortArray -> for (i in 0 until size) result[i] = value[i].toInt()
+                    is IntArray -> value.copyInto(result)
+                    is LongArray -> for (i in 0 until size) result[i] = value[i].toInt()
+                    is FloatArray -> for (i in 0 until size) result[i] = value[i].toInt()
+                    is DoubleArray -> for (i in 0 until size) result[i] = value[i].toInt()
+                    else -> unsupported(value, componentType)
+                }
+            }
+            Long::class.javaPrimitiveType -> LongArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> for (i in 0 until size) result[i] = value[i].toLong()
+                    is ShortArray -> for (i in 0 until size) result[i] = value[i].toLong()
+                    is IntArray -> for (i in 0 until size) result[i] = value[i].toLong()
+                    is LongArray -> value.copyInto(result)
+                    is FloatArray -> for (i in 0 until size) result[i] = value[i].toLong()
+                    is DoubleArray -> for (i in 0 until size) result[i] = value[i].toLong()
+                    else -> unsupported(value, componentType)
+                }
+            }
+            Double::class.javaPrimitiveType -> DoubleArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> for (i in 0 until size) result[i] = value[i].toDouble()
+                    is ShortArray -> for (i in 0 until size) result[i] = value[i].toDouble()
+                    is IntArray -> for (i in 0 until size) result[i] = value[i].toDouble()
+                    is LongArray -> for (i in 0 until size) result[i] = value[i].toDouble()
+                    is FloatArray -> for (i in 0 until size) result[i] = value[i].toDouble()
+                    is DoubleArray -> value.copyInto(result)
+                    else -> unsupported(value, componentType)
+                }
+            }
+            Float::class.javaPrimitiveType -> FloatArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> for (i in 0 until size) result[i] = value[i].toFloat()
+                    is ShortArray -> for (i in 0 until size) result[i] = value[i].toFloat()
+                    is IntArray -> for (i in 0 until size) result[i] = value[i].toFloat()
+                    is LongArray -> for (i in 0 until size) result[i] = value[i].toFloat()
+                    is FloatArray -> value.copyInto(result)
+                    is DoubleArray -> for (i in 0 until size) result[i] = value[i].toFloat()
+                    else -> unsupported(value, componentType)
+                }
+            }
+            Short::class.javaPrimitiveType -> ShortArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> for (i in 0 until size) result[i] = value[i].toShort()
+                    is ShortArray -> value.copyInto(result)
+                    is IntArray -> for (i in 0 until size) result[i] = value[i].toShort()
+                    is LongArray -> for (i in 0 until size) result[i] = value[i].toShort()
+                    is FloatArray -> for (i in 0 until size) result[i] = value[i].toInt().toShort()
+                    is DoubleArray -> for (i in 0 until size) result[i] = value[i].toInt().toShort()
+                    else -> unsupported(value, componentType)
+                }
+            }
+            Byte::class.javaPrimitiveType -> ByteArray(size).also { result ->
+                when (value) {
+                    is ByteArray -> value.copyInto(result)
+                    is ShortArray -> for (i in 0 until size) result[i] = value[i].toByte()
+                    is IntArray -> for (i in 0 until size) result[i] = value[i].toByte()
+                    is LongArray -> for (i in 0 until size) result[i] = value[i].toByte()
+                    is FloatArray -> for (i in 0 until size) result[i] = value[i].toInt().toByte()
+                    is DoubleArray -> for (i in 0 until size) result[i] = value[i].toInt().toByte()
+                    else -> unsupported(value, componentType)
+                }
+            }
+            else -> unsupported(value, componentType)
+        }
+    }
+
+    private fun unsupported(value: Any, componentType: Class<*>?): Nothing {
+        throw IllegalArgumentException("Cannot convert ${value::class.java} to an array of $componentType")
+    }
+}
\ No newline at end of file
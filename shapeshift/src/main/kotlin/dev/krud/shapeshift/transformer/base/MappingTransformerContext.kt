@@ -10,14 +10,23 @@
 
 package dev.krud.shapeshift.transformer.base
 
+import dev.krud.shapeshift.MappingProjection
 import dev.krud.shapeshift.ShapeShift
 import java.lang.reflect.Field
 
-data class MappingTransformerContext<From : Any?>(
+data class MappingTransformerContext<From : Any?> @JvmOverloads constructor(
     val originalValue: From?,
     val fromObject: Any,
     val toObject: Any,
     val fromField: Field,
     val toField: Field,
-    val shapeShift: ShapeShift
+    val shapeShift: ShapeShift,
+    /**
+     * The projection to apply when mapping the value to a nested object, or null if all of its fields should be mapped
+     */
+    val projection: MappingProjection? = null,
+    /**
+     * The current value of the target field, set only when deep update is enabled on the ShapeShift instance
+     */
+    val existingValue: Any? = null
 )
\ No newline at end of file
@@ -13,30 +13,271 @@ package dev.krud.shapeshift.util
 import dev.krud.shapeshift.dto.ResolvedMappedField
 import dev.krud.shapeshift.dto.TransformerCoordinates
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.IdentityNamingStrategy
+import dev.krud.shapeshift.naming.NamingStrategy
+import dev.krud.shapeshift.resolver.MappingDefinition
+import dev.krud.shapeshift.transformer.ImplicitCollectionMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMapMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMappingTransformer
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.Optional
 
-internal fun <From, To> getAutoMappings(fromClazz: Class<From>, toClazz: Class<To>, strategy: AutoMappingStrategy): List<ResolvedMappedField> {
+internal fun <From, To> getAutoMappings(
+    fromClazz: Class<From>,
+    toClazz: Class<To>,
+    strategy: AutoMappingStrategy,
+    namingStrategy: NamingStrategy = IdentityNamingStrategy
+): List<ResolvedMappedField> {
     val resolvedMappedFields = mutableListOf<ResolvedMappedField>()
-    if (strategy != AutoMappingStrategy.NONE) {
-        val fromFields = fromClazz.getDeclaredFieldsRecursive()
-        val toFields = toClazz.getDeclaredFieldsRecursive()
-        for (fromField in fromFields) {
-            val toField = toFields.find {
-                when (strategy) {
-                    AutoMappingStrategy.BY_NAME -> it.name == fromField.name
-                    AutoMappingStrategy.BY_NAME_AND_TYPE -> it.name == fromField.name && it.type.kotlin.javaObjectType == fromField.type.kotlin.javaObjectType
-                    else -> error("Unsupported auto mapping strategy")
+    when (strategy) {
+        AutoMappingStrategy.NONE -> {}
+        AutoMappingStrategy.FLATTEN -> {
+            val fromPaths = fromClazz.getFieldPathsByFlatName(namingStrategy)
+            for (toField in toClazz.getDeclaredFieldsRecursive()) {
+                val fromPath = fromPaths[namingStrategy.normalize(toField.name)] ?: continue
+                resolvedMappedFields += autoMappedField(fromPath, listOf(toField))
+            }
+        }
+        AutoMappingStrategy.UNFLATTEN -> {
+            val toPaths = toClazz.getFieldPathsByFlatName(namingStrategy)
+            val usedToPaths = HashSet<List<Field>>()
+            for (fromField in fromClazz.getDeclaredFieldsRecursive()) {
+                val toPath = toPaths[namingStrategy.normalize(fromField.name)] ?: continue
+                if (usedToPaths.add(toPath)) {
+                    resolvedMappedFields += autoMappedField(listOf(fromField), toPath)
+                }
+            }
+        }
+        AutoMappingStrategy.DEEP -> {
+            val toFields = toClazz.getDeclaredFieldsByNormalizedName(namingStrategy)
+            val usedToFields = HashSet<Field>()
+            for (fromField in fromClazz.getDeclaredFieldsRecursive()) {
+                val toField = toFields[namingStrategy.normalize(fromField.name)] ?: continue
+                if (usedToFields.add(toField)) {
+                    resolvedMappedFields += autoMappedField(listOf(fromField), listOf(toField), getDeepTransformerCoordinates(fromField, toField))
                 }
-            } ?: continue
-            resolvedMappedFields += ResolvedMappedField(
-                listOf(fromField),
-                listOf(toField),
-                TransformerCoordinates.NONE,
-                null,
-                null,
-                null,
-                null
-            )
+            }
+        }
+        AutoMappingStrategy.BY_NAME, AutoMappingStrategy.BY_NAME_AND_TYPE -> {
+            val toFields = toClazz.getDeclaredFieldsByNormalizedName(namingStrategy)
+            val usedToFields = HashSet<Field>()
+            for (fromField in fromClazz.getDeclaredFieldsRecursive()) {
+                val toField = toFields[namingStrategy.normalize(fromField.name)] ?: continue
+                if (strategy == AutoMappingStrategy.BY_NAME_AND_TYPE && toField.type.kotlin.javaObjectType != fromField.type.kotlin.javaObjectType) {
+                    continue
+                }
+                if (usedToFields.add(toField)) {
+                    resolvedMappedFields += autoMappedField(listOf(fromField), listOf(toField))
+                }
+            }
         }
     }
     return resolvedMappedFields
-}
\ No newline at end of file
+}
+
+/**
+ * Get the shared instance of a naming strategy class, either its Kotlin object instance or a new instance from its no-arg constructor
+ */
+internal fun Class<out NamingStrategy>.getNamingStrategyInstance(): NamingStrategy {
+    return namingStrategyInstances.get(this)
+}
+
+private val namingStrategyInstances = object : ClassValue<NamingStrategy>() {
+    override fun computeValue(type: Class<*>): NamingStrategy {
+        return (type.kotlin.objectInstance ?: type.getDeclaredConstructor().newInstance()) as NamingStrategy
+    }
+}
+
+/**
+ * The normalized name indexes of a class for each naming strategy
+ */
+private class NormalizedFieldIndexes {
+    val fieldsByName: MutableMap<NamingStrategy, Map<String, Field>> = concurrentMapOf()
+    val fieldPathsByFlatName: MutableMap<NamingStrategy, Map<String, List<Field>>> = concurrentMapOf()
+}
+
+private val normalizedFieldIndexes = object : ClassValue<NormalizedFieldIndexes>() {
+    override fun computeValue(type: Class<*>): NormalizedFieldIndexes {
+        return NormalizedFieldIndexes()
+    }
+}
+
+/**
+ * Get the declared fields of this class and its superclasses keyed by their name normalized with [namingStrategy]
+ */
+private fun Class<*>.getDeclaredFieldsByNormalizedName(namingStrategy: NamingStrategy): Map<String, Field> {
+    if (namingStrategy === IdentityNamingStrategy) {
+        return getDeclaredFieldsByName()
+    }
+    return normalizedFieldIndexes.get(this).fieldsByName.computeIfAbsent(namingStrategy) {
+        val fields = HashMap<String, Field>()
+        for (field in getDeclaredFieldsRecursive()) {
+            fields.putIfAbsent(namingStrategy.normalize(field.name), field)
+        }
+        fields
+    }
+}
+
+/**
+ * Get the field paths of this class up to [MAX_FLATTEN_DEPTH] levels deep, keyed by their camel case name such as `addressCity`
+ * normalized with [namingStrategy]. Shorter paths take precedence when several paths share the same name. JDK types, enums,
+ * arrays, collections and maps are not descended into
+ */
+private fun Class<*>.getFieldPathsByFlatName(namingStrategy: NamingStrategy): Map<String, List<Field>> {
+    return normalizedFieldIndexes.get(this).fieldPathsByFlatName.computeIfAbsent(namingStrategy) {
+        val result = HashMap<String, List<Field>>()
+        var level = getDeclaredFieldsRecursive()
+            .filter { !Modifier.isStatic(it.modifiers) && !it.isSynthetic }
+            .map { listOf(it) to it.name }
+        var depth = 1
+        while (level.isNotEmpty()) {
+            for ((path, name) in level) {
+                result.putIfAbsent(namingStrategy.normalize(name), path)
+            }
+            if (++depth > MAX_FLATTEN_DEPTH) {
+                break
+            }
+            level = level.flatMap { (path, name) ->
+                val type = path.last().type
+                if (!type.isFlattenable || path.any { it.type == type && it !== path.last() }) {
+                    emptyList()
+                } else {
+                    type.getDeclaredFieldsRecursive()
+                        .filter { !Modifier.isStatic(it.modifiers) && !it.isSynthetic }
+                        .map { (path + it) to name + it.name.replaceFirstChar { char -> char.uppercaseChar() } }
+                }
+            }
+        }
+        result
+    }
+}
+
+/**
+ * Filter out the [autoMappedFields] which map from or to a top level field already used by [resolvedMappedFields]
+ */
+internal fun filterConflictingAutoMappings(resolvedMappedFields: List<ResolvedMappedField>, autoMappedFields: List<ResolvedMappedField>): List<ResolvedMappedField> {
+    if (resolvedMappedFields.isEmpty() || autoMappedFields.isEmpty()) {
+        return autoMappedFields
+    }
+    val fromFields = resolvedMappedFields.mapTo(HashSet()) { it.mapFromCoordinates.first() }
+    val toFields = resolvedMappedFields.mapTo(HashSet()) { it.mapToCoordinates.first() }
+    return autoMappedFields.filter { it.mapFromCoordinates.first() !in fromFields && it.mapToCoordinates.first() !in toFields }
+}
+
+/**
+ * Filter out the [reversedMappedFields] which map to the same coordinates as one of [resolvedMappedFields]
+ */
+internal fun filterConflictingReversedMappings(resolvedMappedFields: List<ResolvedMappedField>, reversedMappedFields: List<ResolvedMappedField>): List<ResolvedMappedField> {
+    if (resolvedMappedFields.isEmpty() || reversedMappedFields.isEmpty()) {
+        return reversedMappedFields
+    }
+    val toCoordinates = resolvedMappedFields.mapTo(HashSet()) { it.mapToCoordinates }
+    return reversedMappedFields.filter { it.mapToCoordinates !in toCoordinates }
+}
+
+/**
+ * Get the definitions of the nested pairs reachable from [fromClazz] and [toClazz] with [AutoMappingStrategy.DEEP], each
+ * automapped in turn. Returns an empty list for any other strategy
+ */
+internal fun getDeepAutoMappingDefinitions(
+    fromClazz: Class<*>,
+    toClazz: Class<*>,
+    strategy: AutoMappingStrategy,
+    namingStrategy: NamingStrategy = IdentityNamingStrategy
+): List<MappingDefinition> {
+    if (strategy != AutoMappingStrategy.DEEP) {
+        return emptyList()
+    }
+    val visited = hashSetOf<ClassPair<*, *>>(ClassPair(fromClazz, toClazz))
+    val pending = ArrayDeque(getNestedPairs(getAutoMappings(fromClazz, toClazz, strategy, namingStrategy)))
+    val mappingDefinitions = mutableListOf<MappingDefinition>()
+    while (pending.isNotEmpty()) {
+        val pair = pending.removeFirst()
+        if (!visited.add(pair)) {
+            continue
+        }
+        val resolvedMappedFields = getAutoMappings(pair.from, pair.to, strategy, namingStrategy)
+        mappingDefinitions += MappingDefinition(pair.from, pair.to, resolvedMappedFields)
+        pending += getNestedPairs(resolvedMappedFields)
+    }
+    return mappingDefinitions
+}
+
+/**
+ * Get the transformer coordinates for a field matched by [AutoMappingStrategy.DEEP]. Fields of the same type, or whose types
+ * are not nested objects or containers of them, are left to the default transformers.
+ * Optional fields are planned by their value type, as optional values are unwrapped before they are transformed
+ */
+private fun getDeepTransformerCoordinates(fromField: Field, toField: Field): TransformerCoordinates {
+    val fromType = fromField.valueType ?: return TransformerCoordinates.NONE
+    val toType = toField.valueType ?: return TransformerCoordinates.NONE
+    if (fromType.kotlin.javaObjectType == toType.kotlin.javaObjectType && fromField.genericType == toField.genericType) {
+        return TransformerCoordinates.NONE
+    }
+    return when {
+        Collection::class.java.isAssignableFrom(fromType) && Collection::class.java.isAssignableFrom(toType) && toField.findGenericAtPosition(0) != null ->
+            TransformerCoordinates.ofType(ImplicitCollectionMappingTransformer::class.java)
+        Map::class.java.isAssignableFrom(fromType) && Map::class.java.isAssignableFrom(toType) && toField.findGenericAtPosition(1) != null ->
+            TransformerCoordinates.ofType(ImplicitMapMappingTransformer::class.java)
+        fromType.isFlattenable && toType.isFlattenable && fromType != toType ->
+            TransformerCoordinates.ofType(ImplicitMappingTransformer::class.java)
+        else -> TransformerCoordinates.NONE
+    }
+}
+
+/**
+ * The type of the values of this field, the value type of an optional field or null if it is unknown
+ */
+private val Field.valueType: Class<*>?
+    get() = if (type == Optional::class.java) findGenericAtPosition(0) else type
+
+/**
+ * Get the pairs of nested types mapped by the implicit transformers of [resolvedMappedFields]
+ */
+private fun getNestedPairs(resolvedMappedFields: List<ResolvedMappedField>): List<ClassPair<*, *>> {
+    val pairs = mutableListOf<ClassPair<*, *>>()
+    for (resolvedMappedField in resolvedMappedFields) {
+        val fromField = resolvedMappedField.mapFromCoordinates.last()
+        val toField = resolvedMappedField.mapToCoordinates.last()
+        val positions = when (resolvedMappedField.transformerCoordinates.type) {
+            ImplicitMappingTransformer::class.java -> {
+                pairs += ClassPair(fromField.valueType!!, toField.valueType!!)
+                continue
+            }
+            ImplicitCollectionMappingTransformer::class.java -> listOf(0)
+            ImplicitMapMappingTransformer::class.java -> listOf(0, 1)
+            else -> continue
+        }
+        for (position in positions) {
+            val fromGeneric = fromField.findGenericAtPosition(position) ?: continue
+            val toGeneric = toField.findGenericAtPosition(position) ?: continue
+            if (fromGeneric != toGeneric && fromGeneric.isFlattenable && toGeneric.isFlattenable) {
+                pairs += ClassPair(fromGeneric, toGeneric)
+            }
+        }
+    }
+    return pairs
+}
+
+private fun autoMappedField(
+    mapFromCoordinates: List<Field>,
+    mapToCoordinates: List<Field>,
+    transformerCoordinates: TransformerCoordinates = TransformerCoordinates.NONE
+): ResolvedMappedField {
+    return ResolvedMappedField(
+        mapFromCoordinates,
+        mapToCoordinates,
+        transformerCoordinates,
+        null,
+        null,
+        null,
+        null
+    )
+}
+
+private val Class<*>.isFlattenable: Boolean
+    get() = !isPrimitive && !isArray && !isEnum && !isInterface &&
+        !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("kotlin.")
+
+private const val MAX_FLATTEN_DEPTH = 3
\ No newline at end of file
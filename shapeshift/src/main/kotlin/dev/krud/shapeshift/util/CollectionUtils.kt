@@ -0,0 +1,78 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.util
+
+import java.lang.reflect.Modifier
+import java.util.ArrayDeque
+import java.util.IdentityHashMap
+import java.util.TreeMap
+import java.util.TreeSet
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Get a factory of empty collections assignable to this collection type, taking the expected size of the collection.
+ * Interfaces are mapped to their default JDK implementation, concrete classes are instantiated through their no-arg
+ * constructor or, for JDK collections, through their initial capacity constructor
+ */
+internal fun Class<*>.getCollectionFactory(): (Int) -> MutableCollection<Any?> {
+    if (isInterface || Modifier.isAbstract(modifiers)) {
+        return when {
+            isAssignableFrom(ArrayList::class.java) -> { size -> ArrayList(size) }
+            isAssignableFrom(LinkedHashSet::class.java) -> { size -> LinkedHashSet(hashCapacityOf(size)) }
+            isAssignableFrom(TreeSet::class.java) -> { _ -> TreeSet() }
+            isAssignableFrom(ArrayDeque::class.java) -> { size -> ArrayDeque(size) }
+            else -> error("Unsupported collection type $this")
+        }
+    }
+    if (name.startsWith("java.util.")) {
+        val capacityConstructor = constructors.firstOrNull { it.parameterCount == 1 && it.parameterTypes[0] == Int::class.javaPrimitiveType }
+        if (capacityConstructor != null) {
+            val isHashBased = HashSet::class.java.isAssignableFrom(this)
+            return { size -> capacityConstructor.newInstance(if (isHashBased) hashCapacityOf(size) else size) as MutableCollection<Any?> }
+        }
+    }
+    val constructor = constructors.firstOrNull { it.parameterCount == 0 }
+        ?: error("Could not find a no-arg constructor for collection type $this")
+    return { _ -> constructor.newInstance() as MutableCollection<Any?> }
+}
+
+/**
+ * Get a factory of empty maps assignable to this map type, taking the expected size of the map.
+ * Interfaces are mapped to their default JDK implementation, concrete classes are instantiated through their no-arg
+ * constructor or, for JDK maps, through their initial capacity constructor
+ */
+internal fun Class<*>.getMapFactory(): (Int) -> MutableMap<Any?, Any?> {
+    if (isInterface || Modifier.isAbstract(modifiers)) {
+        return when {
+            isAssignableFrom(LinkedHashMap::class.java) -> { size -> LinkedHashMap(hashCapacityOf(size)) }
+            isAssignableFrom(TreeMap::class.java) -> { _ -> TreeMap() }
+            isAssignableFrom(ConcurrentHashMap::class.java) -> { size -> ConcurrentHashMap(hashCapacityOf(size)) }
+            else -> error("Unsupported map type $this")
+        }
+    }
+    if (name.startsWith("java.util.")) {
+        val capacityConstructor = constructors.firstOrNull { it.parameterCount == 1 && it.parameterTypes[0] == Int::class.javaPrimitiveType }
+        if (capacityConstructor != null) {
+            val takesExpectedSize = this == IdentityHashMap::class.java
+            return { size -> capacityConstructor.newInstance(if (takesExpectedSize) size else hashCapacityOf(size)) as MutableMap<Any?, Any?> }
+        }
+    }
+    val constructor = constructors.firstOrNull { it.parameterCount == 0 }
+        ?: error("Could not find a no-arg constructor for map type $this")
+    return { _ -> constructor.newInstance() as MutableMap<Any?, Any?> }
+}
+
+/**
+ * The initial capacity of a hash based collection expected to hold [size] elements without rehashing
+ */
+internal fun hashCapacityOf(size: Int): Int {
+    return if (size < 3) size + 1 else (size / 0.75f + 1).toInt()
+}
\ No newline at end of file
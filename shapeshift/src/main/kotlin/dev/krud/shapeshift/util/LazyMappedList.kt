@@ -0,0 +1,36 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.util
+
+import java.util.RandomAccess
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * An immutable list view over [source], where every element is mapped with [mapper] on first access and memoized.
+ * Concurrent first reads of the same element may map it more than once, but all readers observe the same result
+ */
+internal class LazyMappedList<From : Any, To : Any>(
+    private val source: List<From>,
+    private val mapper: (From) -> To
+) : AbstractList<To>(), RandomAccess {
+    private val mapped = AtomicReferenceArray<To>(source.size)
+
+    override val size: Int get() = mapped.length()
+
+    override fun get(index: Int): To {
+        val existing = mapped.get(index)
+        if (existing != null) {
+            return existing
+        }
+        mapped.compareAndSet(index, null, mapper(source[index]))
+        return mapped.get(index)
+    }
+}
\ No newline at end of file
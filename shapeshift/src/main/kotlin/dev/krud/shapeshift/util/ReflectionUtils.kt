@@ -13,7 +13,13 @@
 package dev.krud.shapeshift.util
 
 import java.lang.reflect.Field
+import java.lang.reflect.Modifier
 import java.lang.reflect.ParameterizedType
+import java.lang.reflect.Type
+import java.lang.reflect.WildcardType
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.util.UUID
 
 
 data class ClassPair<From, To>(val from: Class<out From>, val to: Class<out To>)
@@ -38,15 +44,25 @@ internal fun Class<*>.getDeclaredFieldsRecursive(): List<Field> {
 }
 
 internal fun Class<*>.getDeclaredFieldRecursive(name: String): Field {
-    var clazz: Class<*>? = this
-    while (clazz != null) {
-        try {
-            return clazz.getDeclaredField(name)
-        } catch (e: NoSuchFieldException) {
-            clazz = clazz.superclass
+    return getDeclaredFieldsByName()[name] ?: throw NoSuchFieldException(name)
+}
+
+/**
+ * Get the declared fields of this class and its superclasses keyed by name. Fields declared closer to this class shadow
+ * same-named fields of its superclasses
+ */
+internal fun Class<*>.getDeclaredFieldsByName(): Map<String, Field> {
+    return declaredFieldsByName.get(this)
+}
+
+private val declaredFieldsByName = object : ClassValue<Map<String, Field>>() {
+    override fun computeValue(type: Class<*>): Map<String, Field> {
+        val fields = HashMap<String, Field>()
+        for (field in type.getDeclaredFieldsRecursive()) {
+            fields.putIfAbsent(field.name, field)
         }
+        return fields
     }
-    throw NoSuchFieldException(name)
 }
 
 internal fun Field.getGenericAtPosition(position: Int): Class<*> {
@@ -55,4 +71,59 @@ internal fun Field.getGenericAtPosition(position: Int): Class<*> {
     }
     val typeArgument = (genericType as ParameterizedType).actualTypeArguments[position] as Class<*>
     return typeArgument
-}
\ No newline at end of file
+}
+
+/**
+ * Get the class of the generic type argument at [position], or null if the field is not parameterized or the argument
+ * cannot be resolved to a class. Wildcards are resolved to their upper bound
+ */
+internal fun Field.findGenericAtPosition(position: Int): Class<*>? {
+    val genericType = genericType as? ParameterizedType ?: return null
+    return genericType.actualTypeArguments.getOrNull(position)?.toClassOrNull()
+}
+
+internal fun Type.toClassOrNull(): Class<*>? {
+    return when (this) {
+        is Class<*> -> this
+        is ParameterizedType -> rawType as? Class<*>
+        is WildcardType -> upperBounds.firstOrNull()?.toClassOrNull()
+        else -> null
+    }
+}
+
+private val IMMUTABLE_TYPES: Set<Class<*>> = setOf(
+    String::class.java,
+    Boolean::class.javaObjectType,
+    Char::class.javaObjectType,
+    Byte::class.javaObjectType,
+    Short::class.javaObjectType,
+    Int::class.javaObjectType,
+    Long::class.javaObjectType,
+    Float::class.javaObjectType,
+    Double::class.javaObjectType,
+    BigDecimal::class.java,
+    BigInteger::class.java,
+    UUID::class.java,
+    Class::class.java
+)
+
+/**
+ * Whether instances of this class are known to be immutable
+ */
+internal val Class<*>.isImmutableType: Boolean
+    get() = isPrimitive || this in IMMUTABLE_TYPES || Enum::class.java.isAssignableFrom(this) ||
+        (name.startsWith("java.time.") && Modifier.isFinal(modifiers))
+
+/**
+ * Whether this class belongs to the JDK
+ */
+internal val Class<*>.isJdkType: Boolean
+    get() = name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+
+/**
+ * Whether this class holds a single value rather than mapped fields, which is the case for JDK types, primitives and enums
+ */
+internal val Class<*>.isValueType: Boolean
+    get() = isPrimitive || isJdkType || Enum::class.java.isAssignableFrom(this)
+
+internal val Class<*>.isConcrete: Boolean get() = !isInterface && !isArray && !isPrimitive && !Modifier.isAbstract(modifiers)
\ No newline at end of file
@@ -11,15 +11,32 @@
 package dev.krud.shapeshift
 
 import dev.krud.shapeshift.MappingTransformerRegistration.Companion.toRegistration
+import dev.krud.shapeshift.decorator.DependentMappingDecorator
 import dev.krud.shapeshift.decorator.MappingDecorator
+import dev.krud.shapeshift.decorator.MappingDecoratorContext
+import dev.krud.shapeshift.dto.MappingDifference
+import dev.krud.shapeshift.enums.CollectionMappingStrategy
+import dev.krud.shapeshift.enums.MergePrecedence
+import dev.krud.shapeshift.resolver.MappingDefinition
+import dev.krud.shapeshift.resolver.MappingDefinitionResolver
 import dev.krud.shapeshift.transformer.base.MappingTransformer
+import dev.krud.shapeshift.util.ClassPair
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Nested
 import org.junit.jupiter.api.Test
 import strikt.api.expectThat
 import strikt.api.expectThrows
+import strikt.assertions.contains
+import strikt.assertions.doesNotContain
+import strikt.assertions.hasSize
 import strikt.assertions.isEqualTo
+import strikt.assertions.isNotSameInstanceAs
 import strikt.assertions.isNull
+import strikt.assertions.isSameInstanceAs
+import java.time.DayOfWeek
+import java.util.Date
+import java.util.EnumMap
+import java.util.EnumSet
 
 internal class ShapeShiftTests {
     internal lateinit var shapeShift: ShapeShift
@@ -51,6 +68,55 @@ internal class ShapeShiftTests {
                 .isEqualTo(1L)
         }
 
+        @Test
+        internal fun `annotation automatic mapping with naming strategy`() {
+            val shapeShift = ShapeShiftBuilder()
+                .build()
+            val from = PrefixedAutomaticMappingFrom()
+            val result = shapeShift.map<PrefixedAutomaticMappingFrom, GenericTo>(from)
+            expectThat(result.long)
+                .isEqualTo(1L)
+        }
+
+        @Test
+        internal fun `annotation automatic mapping with prefix naming strategy should not strip target names starting with the prefix`() {
+            val result = shapeShift.map<MemberPrefixedFrom, MemberPrefixedTo>(MemberPrefixedFrom())
+            expectThat(result.model)
+                .isEqualTo("model")
+            expectThat(result.message)
+                .isEqualTo("message")
+            expectThat(result.mode)
+                .isEqualTo("mode")
+        }
+
+        @Test
+        internal fun `annotation automatic mapping with deep strategy`() {
+            val shapeShift = ShapeShiftBuilder()
+                .build()
+            val from = DeepFrom()
+            val result = shapeShift.map<DeepFrom, DeepTo>(from)
+            expectThat(result.customer?.name)
+                .isEqualTo("Customer")
+            expectThat(result.customer?.orders?.map { it.id })
+                .isEqualTo(listOf("1"))
+            expectThat(result.orders?.map { it.id })
+                .isEqualTo(listOf("2", "3"))
+            expectThat(result.lastOrder?.get()?.id)
+                .isEqualTo("3")
+        }
+
+        @Test
+        internal fun `annotation automatic mapping with deep strategy after mapping a nested pair`() {
+            val shapeShift = ShapeShiftBuilder()
+                .build()
+            shapeShift.map<DeepOrder, DeepOrderDto>(DeepOrder("1"))
+            val result = shapeShift.map<DeepFrom, DeepTo>(DeepFrom())
+            expectThat(result.orders?.map { it.id })
+                .isEqualTo(listOf("2", "3"))
+            expectThat(result.customer?.orders?.map { it.id })
+                .isEqualTo(listOf("1"))
+        }
+
         @Test
         internal fun `annotation automatic mapping with explicit wrong target`() {
             val shapeShift = ShapeShiftBuilder()
@@ -84,6 +150,74 @@ internal class ShapeShiftTests {
                 .isEqualTo(expected)
         }
 
+        @Test
+        internal fun `mapCollection with heterogeneous subtypes and subtype mappings`() {
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<Circle, CircleDto> {
+                    Circle::name mappedTo CircleDto::name
+                    Circle::radius mappedTo CircleDto::radius
+                }
+                .withMapping<Square, SquareDto> {
+                    Square::name mappedTo SquareDto::name
+                    Square::side mappedTo SquareDto::side
+                }
+                .withSubtypeMapping<Shape, ShapeDto, Circle, CircleDto>()
+                .withSubtypeMapping<Shape, ShapeDto, Square, SquareDto>()
+                .build()
+            val result = shapeShift.mapCollection(listOf(Circle(), Square(), Circle()), ShapeDto::class.java)
+            expectThat(result.map { it::class.java })
+                .isEqualTo(listOf(CircleDto::class.java, SquareDto::class.java, CircleDto::class.java))
+            expectThat((result[0] as CircleDto).radius)
+                .isEqualTo(1)
+            expectThat((result[1] as SquareDto).side)
+                .isEqualTo(2)
+            expectThat(result[1].name)
+                .isEqualTo("shape")
+        }
+
+        @Test
+        internal fun `mapCollection grouped by type should keep the original order`() {
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<Circle, CircleDto> {
+                    Circle::radius mappedTo CircleDto::radius
+                }
+                .withMapping<Square, SquareDto> {
+                    Square::side mappedTo SquareDto::side
+                }
+                .withSubtypeMapping<Shape, ShapeDto, Circle, CircleDto>()
+                .withSubtypeMapping<Shape, ShapeDto, Square, SquareDto>()
+                .build()
+            val result = shapeShift.mapCollection(listOf(Square(), Circle(), Square(), Circle()), ShapeDto::class.java, CollectionMappingStrategy.GROUP_BY_TYPE)
+            expectThat(result.map { it::class.java })
+                .isEqualTo(listOf(SquareDto::class.java, CircleDto::class.java, SquareDto::class.java, CircleDto::class.java))
+            expectThat((result[2] as SquareDto).side)
+                .isEqualTo(2)
+            expectThat((result[3] as CircleDto).radius)
+                .isEqualTo(1)
+        }
+
+        @Test
+        internal fun `mapCollection lazy should only map the elements that are read`() {
+            var mappedCount = 0
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<Circle, CircleDto> {
+                    Circle::radius mappedTo CircleDto::radius
+                }
+                .withDecorator<Circle, CircleDto>(MappingDecorator { mappedCount++ })
+                .build()
+            val result = shapeShift.mapCollection(List(100) { Circle() }, CircleDto::class.java, CollectionMappingStrategy.LAZY)
+            expectThat(result)
+                .hasSize(100)
+            expectThat(mappedCount)
+                .isEqualTo(0)
+            expectThat(result[10].radius)
+                .isEqualTo(1)
+            expectThat(result[10])
+                .isSameInstanceAs(result[10])
+            expectThat(mappedCount)
+                .isEqualTo(1)
+        }
+
         @Test
         internal fun `multiple mapped fields on field`() {
             val result = shapeShift.map(FromWithMultipleMappedFields(), MultipleFieldTo::class.java)
@@ -294,6 +428,484 @@ internal class ShapeShiftTests {
         }
     }
 
+    @Test
+    internal fun `default transformer registered for a supertype should apply to subtypes`() {
+        val result = shapeShift.map(SubtypeDefaultTransformerFrom(), IntTo::class.java)
+        expectThat(result.long)
+            .isEqualTo(1)
+    }
+
+    @Test
+    internal fun `default transformer registered for the exact pair should take precedence over a supertype transformer`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withTransformer(MappingTransformer<Long, Int> { 2 }, true)
+            .build()
+        val result = shapeShift.map(SubtypeDefaultTransformerFrom(), IntTo::class.java)
+        expectThat(result.long)
+            .isEqualTo(2)
+    }
+
+    @Test
+    internal fun `precompile should resolve nested and collection element pairs`() {
+        val resolvedPairs = mutableListOf<ClassPair<*, *>>()
+        val shapeShift = ShapeShiftBuilder()
+            .withResolver(object : MappingDefinitionResolver {
+                override fun resolve(fromClazz: Class<*>, toClazz: Class<*>): MappingDefinition? {
+                    resolvedPairs += ClassPair(fromClazz, toClazz)
+                    return null
+                }
+            })
+            .build()
+        shapeShift.precompile<Order, OrderDto>()
+        expectThat(resolvedPairs.toList())
+            .isEqualTo(
+                listOf<ClassPair<*, *>>(
+                    ClassPair(Order::class.java, OrderDto::class.java),
+                    ClassPair(Customer::class.java, CustomerDto::class.java),
+                    ClassPair(LineItem::class.java, LineItemDto::class.java)
+                )
+            )
+        val result = shapeShift.map<Order, OrderDto>(Order())
+        expectThat(result.customer?.name)
+            .isEqualTo("customer")
+        expectThat(result.lineItems?.first()?.quantity)
+            .isEqualTo(1)
+        expectThat(resolvedPairs.size)
+            .isEqualTo(3)
+    }
+
+    @Test
+    internal fun `nested pair failing to resolve should fail the same on every map`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withResolver(object : MappingDefinitionResolver {
+                override fun resolve(fromClazz: Class<*>, toClazz: Class<*>): MappingDefinition? {
+                    require(fromClazz != Customer::class.java) { "Unsupported customer" }
+                    return null
+                }
+            })
+            .build()
+        repeat(2) {
+            expectThrows<IllegalStateException> {
+                shapeShift.map<Order, OrderDto>(Order())
+            }
+        }
+    }
+
+    @Test
+    internal fun `map with projection should only map the selected fields`() {
+        val result = shapeShift.map<Order, OrderDto>(Order(), MappingProjection.of("customer.name"))
+        expectThat(result.customer?.name)
+            .isEqualTo("customer")
+        expectThat(result.lineItems)
+            .isNull()
+    }
+
+    @Test
+    internal fun `map with projection of a nested object should map all of its fields`() {
+        val result = shapeShift.map(Order(), OrderDto::class.java, MappingProjection.of("lineItems"))
+        expectThat(result.customer)
+            .isNull()
+        expectThat(result.lineItems?.first()?.quantity)
+            .isEqualTo(1)
+    }
+
+    @Test
+    internal fun `projection with an unknown nested field should not instantiate the nested object`() {
+        val result = shapeShift.map(Order(), OrderDto::class.java, MappingProjection.of("customer.unknown"))
+        expectThat(result.customer)
+            .isNull()
+    }
+
+    @Test
+    internal fun `projection of collection element fields should map the selected element fields`() {
+        val result = shapeShift.map(Order(), OrderDto::class.java, MappingProjection.of("lineItems.quantity"))
+        expectThat(result.customer)
+            .isNull()
+        expectThat(result.lineItems?.map { it.quantity })
+            .isEqualTo(listOf(1))
+    }
+
+    @Test
+    internal fun `projection should drop paths nested under another selected path`() {
+        expectThat(MappingProjection.of("customer", "customer.name", "lineItems.quantity"))
+            .isEqualTo(MappingProjection.of("customer", "lineItems.quantity"))
+    }
+
+    @Test
+    internal fun `deep update should map into existing nested objects`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withDeepUpdate(true)
+            .build()
+        val customer = CustomerDto()
+        val toObject = OrderDto().apply { this.customer = customer }
+        shapeShift.map(Order(), toObject)
+        expectThat(toObject.customer)
+            .isSameInstanceAs(customer)
+        expectThat(customer.name)
+            .isEqualTo("customer")
+    }
+
+    @Test
+    internal fun `deep update should create nested objects that do not exist`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withDeepUpdate(true)
+            .build()
+        val toObject = shapeShift.map(Order(), OrderDto())
+        expectThat(toObject.customer?.name)
+            .isEqualTo("customer")
+    }
+
+    @Test
+    internal fun `nested objects should be replaced when deep update is disabled`() {
+        val customer = CustomerDto()
+        val toObject = OrderDto().apply { this.customer = customer }
+        shapeShift.map(Order(), toObject)
+        expectThat(toObject.customer)
+            .isNotSameInstanceAs(customer)
+    }
+
+    @Test
+    internal fun `collection with merge key should be merged into the existing collection`() {
+        val kept = MergeItemDto(1, "old")
+        val removed = MergeItemDto(2, "removed")
+        val existingItems = mutableListOf(kept, removed)
+        val toObject = MergeTo().apply { items = existingItems }
+        shapeShift.map(MergeFrom(listOf(MergeItem(1, "new"), MergeItem(3, "added"))), toObject)
+        expectThat(toObject.items)
+            .isSameInstanceAs(existingItems)
+        expectThat(existingItems.map { it.id to it.name })
+            .isEqualTo(listOf(1L to "new", 3L to "added"))
+        expectThat(existingItems.first())
+            .isSameInstanceAs(kept)
+    }
+
+    @Test
+    internal fun `collection with merge key should be merged into a copy of a read-only collection`() {
+        val kept = MergeItemDto(1, "old")
+        val toObject = ReadOnlyMergeTo().apply { items = listOf(kept, MergeItemDto(2, "removed")) }
+        shapeShift.map(ReadOnlyMergeFrom(listOf(MergeItem(1, "new"), MergeItem(3, "added"))), toObject)
+        expectThat(toObject.items.map { it.id to it.name })
+            .isEqualTo(listOf(1L to "new", 3L to "added"))
+        expectThat(toObject.items.first())
+            .isSameInstanceAs(kept)
+    }
+
+    @Test
+    internal fun `collection with merge key should be merged into a copy of an empty read-only collection`() {
+        val toObject = ReadOnlyMergeTo()
+        shapeShift.map(ReadOnlyMergeFrom(listOf(MergeItem(1, "new"))), toObject)
+        expectThat(toObject.items.map { it.name })
+            .isEqualTo(listOf("new"))
+    }
+
+    @Test
+    internal fun `collection with merge key should be mapped as usual when there is no existing collection`() {
+        val result = shapeShift.map(MergeFrom(listOf(MergeItem(1, "new"))), MergeTo::class.java)
+        expectThat(result.items?.map { it.name })
+            .isEqualTo(listOf("new"))
+    }
+
+    @Test
+    internal fun `mapChanges should return the target fields whose value changed`() {
+        val toObject = MergeItemDto(1, "old")
+        val changedFields = shapeShift.mapChanges(MergeItem(1, "new"), toObject)
+        expectThat(changedFields)
+            .isEqualTo(setOf("name"))
+        expectThat(toObject.name)
+            .isEqualTo("new")
+    }
+
+    @Test
+    internal fun `mapChanges should only return a merged collection if an element was added, removed or changed`() {
+        val toObject = MergeTo().apply { items = mutableListOf(MergeItemDto(1, "same")) }
+        expectThat(shapeShift.mapChanges(MergeFrom(listOf(MergeItem(1, "same"))), toObject))
+            .isEqualTo(emptySet())
+        expectThat(shapeShift.mapChanges(MergeFrom(listOf(MergeItem(1, "changed"))), toObject))
+            .isEqualTo(setOf("items"))
+        expectThat(shapeShift.mapChanges(MergeFrom(listOf(MergeItem(1, "changed"), MergeItem(2, "added"))), toObject))
+            .isEqualTo(setOf("items"))
+        expectThat(toObject.items!!.map { it.name })
+            .isEqualTo(listOf("changed", "added"))
+    }
+
+    @Test
+    internal fun `mapChanges should return the nested fields changed by deep update`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withDeepUpdate(true)
+            .build()
+        val customer = CustomerDto().apply { name = "other" }
+        val toObject = OrderDto().apply {
+            this.customer = customer
+            lineItems = listOf(LineItemDto().apply { quantity = 1 })
+        }
+        val changedFields = shapeShift.mapChanges(Order(), toObject)
+        expectThat(changedFields)
+            .contains("customer.name")
+            .doesNotContain("customer")
+        expectThat(toObject.customer)
+            .isSameInstanceAs(customer)
+        expectThat(customer.name)
+            .isEqualTo("customer")
+    }
+
+    @Test
+    internal fun `MAP_CHANGED should not write values equal to the current value`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withDefaultMappingStrategy(MappingStrategy.MAP_CHANGED)
+            .build()
+        val currentName = String(charArrayOf('a'))
+        val toObject = MergeItemDto(1, currentName)
+        shapeShift.map(MergeItem(2, "a"), toObject)
+        expectThat(toObject.name)
+            .isSameInstanceAs(currentName)
+        expectThat(toObject.id)
+            .isEqualTo(2L)
+    }
+
+    @Test
+    internal fun `remap should only map the fields mapped from the changed source fields`() {
+        val toObject = MergeItemDto(1, "old")
+        shapeShift.remap(MergeItem(2, "new"), toObject, setOf("name"))
+        expectThat(toObject.id)
+            .isEqualTo(1L)
+        expectThat(toObject.name)
+            .isEqualTo("new")
+    }
+
+    @Test
+    internal fun `remap should only apply dependent decorators of the changed source fields`() {
+        val applied = mutableListOf<String>()
+        val shapeShift = ShapeShiftBuilder()
+            .withDecorator(MergeItem::class.java, MergeItemDto::class.java, MappingDecorator { applied += "plain" })
+            .withDecorator(
+                MergeItem::class.java,
+                MergeItemDto::class.java,
+                object : DependentMappingDecorator<MergeItem, MergeItemDto> {
+                    override val dependsOn = setOf("name")
+                    override fun decorate(context: MappingDecoratorContext<MergeItem, MergeItemDto>) {
+                        applied += "name"
+                    }
+                }
+            )
+            .build()
+        shapeShift.remap(MergeItem(2, "new"), MergeItemDto(), setOf("id"))
+        shapeShift.remap(MergeItem(2, "new"), MergeItemDto(), setOf("name"))
+        expectThat(applied)
+            .isEqualTo(mutableListOf("name"))
+    }
+
+    @Test
+    internal fun `diff should return differing fields without writing them`() {
+        val toObject = MergeItemDto(1, "old")
+        val differences = shapeShift.diff(MergeItem(1, "new"), toObject)
+        expectThat(differences)
+            .isEqualTo(listOf(MappingDifference("name", "old", "new")))
+        expectThat(toObject.name)
+            .isEqualTo("old")
+    }
+
+    @Test
+    internal fun `diff should compare existing nested objects field by field`() {
+        val toObject = OrderDto().apply { customer = CustomerDto().apply { name = "other" } }
+        val differences = shapeShift.diff(Order(), toObject)
+        expectThat(differences.map { it.path })
+            .isEqualTo(listOf("customer.name", "lineItems[0].quantity"))
+        expectThat(differences.first())
+            .isEqualTo(MappingDifference("customer.name", "other", "customer"))
+        expectThat(toObject.lineItems)
+            .isNull()
+    }
+
+    @Test
+    internal fun `diff should compare collection elements field by field`() {
+        val toObject = OrderDto().apply {
+            customer = CustomerDto().apply { name = "customer" }
+            lineItems = listOf(LineItemDto().apply { quantity = 1 })
+        }
+        expectThat(shapeShift.diff(Order(), toObject))
+            .isEqualTo(emptyList())
+        toObject.lineItems = listOf(LineItemDto().apply { quantity = 2 }, LineItemDto())
+        expectThat(shapeShift.diff(Order(), toObject).map { it.path })
+            .isEqualTo(listOf("lineItems[0].quantity", "lineItems[1]"))
+    }
+
+    @Test
+    internal fun `diff should not instantiate missing nested target objects`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<MergeItem, OrderDto> {
+                MergeItem::name mappedTo OrderDto::customer..CustomerDto::name
+            }
+            .build()
+        val toObject = OrderDto()
+        val differences = shapeShift.diff(MergeItem(1, "new"), toObject)
+        expectThat(differences)
+            .isEqualTo(listOf(MappingDifference("customer.name", null, "new")))
+        expectThat(toObject.customer)
+            .isNull()
+    }
+
+    @Test
+    internal fun `diff should wrap transformer exceptions`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<MergeItem, MergeItemDto> {
+                MergeItem::name mappedTo MergeItemDto::name withTransformer { throw IllegalArgumentException("failed") }
+            }
+            .build()
+        expectThrows<IllegalStateException> {
+            shapeShift.diff(MergeItem(1, "new"), MergeItemDto())
+        }
+    }
+
+    @Test
+    internal fun `mapToAll should map to all targets and run shared default transformers once`() {
+        var transformCount = 0
+        val shapeShift = ShapeShiftBuilder()
+            .withTransformer(
+                MappingTransformer<Long, String> {
+                    transformCount++
+                    it.originalValue.toString()
+                }.toRegistration(true)
+            )
+            .withMapping<FanOutFrom, FanOutListDto> {
+                FanOutFrom::id mappedTo FanOutListDto::id
+            }
+            .withMapping<FanOutFrom, FanOutDetailDto> {
+                FanOutFrom::id mappedTo FanOutDetailDto::id
+                FanOutFrom::name mappedTo FanOutDetailDto::name
+            }
+            .build()
+        val result = shapeShift.mapToAll(FanOutFrom(), FanOutListDto::class.java, FanOutDetailDto::class.java)
+        val listDto = result[0] as FanOutListDto
+        val detailDto = result[1] as FanOutDetailDto
+        expectThat(listDto.id)
+            .isEqualTo("1")
+        expectThat(detailDto.id)
+            .isEqualTo("1")
+        expectThat(detailDto.name)
+            .isEqualTo("name")
+        expectThat(transformCount)
+            .isEqualTo(1)
+    }
+
+    @Test
+    internal fun `mapMerged should map all sources into a single target`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<FanOutFrom, FanOutDetailDto> {
+                FanOutFrom::name mappedTo FanOutDetailDto::name
+            }
+            .withMapping<MergeStats, FanOutDetailDto> {
+                MergeStats::views mappedTo FanOutDetailDto::id
+                MergeStats::name mappedTo FanOutDetailDto::name
+            }
+            .build()
+        val lastWins = shapeShift.mapMerged<FanOutDetailDto>(FanOutFrom(), MergeStats())
+        expectThat(lastWins.id)
+            .isEqualTo("10")
+        expectThat(lastWins.name)
+            .isEqualTo("stats")
+        val firstWins = shapeShift.mapMerged(FanOutDetailDto::class.java, MergePrecedence.FIRST_WINS, FanOutFrom(), MergeStats())
+        expectThat(firstWins.name)
+            .isEqualTo("name")
+    }
+
+    @Test
+    internal fun `mapMerged should fall back to the previous source when the value of the winning source is skipped`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<FanOutFrom, FanOutDetailDto> {
+                FanOutFrom::name mappedTo FanOutDetailDto::name
+            }
+            .withMapping<MergeStats, FanOutDetailDto> {
+                MergeStats::name mappedTo FanOutDetailDto::name
+            }
+            .build()
+        val result = shapeShift.mapMerged<FanOutDetailDto>(FanOutFrom(), MergeStats(name = null))
+        expectThat(result.name)
+            .isEqualTo("name")
+    }
+
+    @Test
+    internal fun `reversible annotated field should be mapped in the opposite direction`() {
+        val result = shapeShift.map(ReversibleTo("title", "oneWay"), ReversibleFrom(null, null))
+        expectThat(result.name)
+            .isEqualTo("title")
+        expectThat(result.oneWay)
+            .isNull()
+    }
+
+    @Test
+    internal fun `reversible dsl mapping should be mapped in the opposite direction`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<MergeStats, FanOutDetailDto> {
+                MergeStats::name mappedTo FanOutDetailDto::name reversible true
+            }
+            .build()
+        val result = shapeShift.map(FanOutDetailDto().apply { name = "reversed" }, MergeStats::class.java)
+        expectThat(result.name)
+            .isEqualTo("reversed")
+    }
+
+    @Test
+    internal fun `copy should deep copy mutable values and share immutable ones`() {
+        val original = CopyNode("original", CopyNode("next"), mutableListOf("tag"), intArrayOf(1, 2), mapOf("child" to CopyNode("child")))
+        val copy = shapeShift.copy(original)
+        expectThat(copy)
+            .isNotSameInstanceAs(original)
+        expectThat(copy.name)
+            .isSameInstanceAs(original.name)
+        expectThat(copy.next)
+            .isNotSameInstanceAs(original.next)
+        expectThat(copy.next?.name)
+            .isEqualTo("next")
+        expectThat(copy.tags)
+            .isNotSameInstanceAs(original.tags)
+            .isEqualTo(original.tags)
+        expectThat(copy.scores.toList())
+            .isEqualTo(listOf(1, 2))
+        expectThat(copy.scores)
+            .isNotSameInstanceAs(original.scores)
+        expectThat(copy.attributes["child"]?.name)
+            .isEqualTo("child")
+        expectThat(copy.attributes["child"])
+            .isNotSameInstanceAs(original.attributes["child"])
+    }
+
+    @Test
+    internal fun `copy should clone cloneable JDK values`() {
+        val original = CopyNode("original", created = Date(1000))
+        val copy = shapeShift.copy(original)
+        expectThat(copy.created)
+            .isNotSameInstanceAs(original.created)
+            .isEqualTo(original.created)
+    }
+
+    @Test
+    internal fun `copy should keep the class of enum collections and maps`() {
+        val original = CopyNode(
+            "original",
+            days = EnumSet.of(DayOfWeek.MONDAY),
+            schedule = EnumMap(mapOf(DayOfWeek.MONDAY to CopyNode("monday")))
+        )
+        val copy = shapeShift.copy(original)
+        expectThat(copy.days)
+            .isNotSameInstanceAs(original.days)
+            .isEqualTo(original.days)
+        expectThat(copy.schedule)
+            .isNotSameInstanceAs(original.schedule)
+        expectThat(copy.schedule[DayOfWeek.MONDAY]?.name)
+            .isEqualTo("monday")
+        expectThat(copy.schedule[DayOfWeek.MONDAY])
+            .isNotSameInstanceAs(original.schedule[DayOfWeek.MONDAY])
+    }
+
+    @Test
+    internal fun `copy should preserve cycles`() {
+        val original = CopyNode("original")
+        original.next = original
+        val copy = shapeShift.copy(original)
+        expectThat(copy.next)
+            .isSameInstanceAs(copy)
+    }
+
     @Test
     internal fun `using unregistered transformer by type should throw exception`() {
         expectThrows<IllegalStateException> {
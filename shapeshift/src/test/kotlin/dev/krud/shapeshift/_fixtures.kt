@@ -13,11 +13,15 @@ package dev.krud.shapeshift
 import dev.krud.shapeshift.condition.MappingCondition
 import dev.krud.shapeshift.condition.MappingConditionContext
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.PrefixNamingStrategy
 import dev.krud.shapeshift.resolver.annotation.AutoMapping
 import dev.krud.shapeshift.resolver.annotation.DefaultMappingTarget
 import dev.krud.shapeshift.resolver.annotation.MappedField
+import dev.krud.shapeshift.transformer.ImplicitCollectionMappingTransformer
+import dev.krud.shapeshift.transformer.ImplicitMappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+import java.time.DayOfWeek
 import java.util.*
 
 class ExampleFieldTransformer : MappingTransformer<Long, Date> {
@@ -71,6 +75,18 @@ internal class FromWithBase : BaseFromWithMappedField() {
     val long: Long = 1L
 }
 
+internal class SecondFromWithBase : BaseFromWithMappedField() {
+    @MappedField(target = ToWithBase::class)
+    val long: Long = 2L
+}
+
+@MappedField(target = ToWithBase::class, mapFrom = "long")
+internal abstract class BaseFromWithTypeMappedField
+
+internal class FromWithTypeMappedFieldOnBase : BaseFromWithTypeMappedField() {
+    val long: Long = 1L
+}
+
 internal class FromWithComplexPath {
     @MappedField(target = GenericTo::class, mapFrom = "grandchild.greatGrandchild.long")
     val child: Child = Child()
@@ -96,6 +112,15 @@ internal class FromToComplexPath {
 @MappedField(target = GenericTo::class)
 internal class FromWithInvalidTypeAnnotation
 
+internal class FromWithMultipleTargets {
+    @MappedField(target = GenericTo::class)
+    @MappedField(target = StringTo::class, mapTo = "long")
+    val long: Long = 1L
+
+    @MappedField(target = StringTo::class, mapTo = "long")
+    val secondLong: Long = 2L
+}
+
 internal class FromWithoutDefinedTarget {
     @MappedField
     val long: Long = 1L
@@ -196,6 +221,15 @@ internal class StringTo {
     var long: String? = null
 }
 
+internal class IntTo {
+    var long: Int? = null
+}
+
+internal class SubtypeDefaultTransformerFrom {
+    @MappedField(target = IntTo::class)
+    val long: Long = 1L
+}
+
 internal class MultipleFieldTo {
     val long: Long? = null
     val secondLong: Long? = null
@@ -267,6 +301,52 @@ internal class NameOnlyAutomaticMappingFromExplicit {
     val long: Long = 1L
 }
 
+@AutoMapping(GenericTo::class, strategy = AutoMappingStrategy.BY_NAME_AND_TYPE, namingStrategy = MemberPrefixNamingStrategy::class)
+internal class PrefixedAutomaticMappingFrom {
+    val mLong: Long = 1L
+}
+
+internal class MemberPrefixNamingStrategy : PrefixNamingStrategy("m")
+
+@AutoMapping(MemberPrefixedTo::class, strategy = AutoMappingStrategy.BY_NAME, namingStrategy = MemberPrefixNamingStrategy::class)
+internal class MemberPrefixedFrom {
+    val mModel: String = "model"
+    val mMessage: String = "message"
+    val mode: String = "mode"
+}
+
+internal class MemberPrefixedTo {
+    var model: String? = null
+    var message: String? = null
+    var mode: String? = null
+}
+
+@AutoMapping(DeepTo::class, strategy = AutoMappingStrategy.DEEP)
+internal class DeepFrom(
+    val customer: DeepCustomer = DeepCustomer("Customer", listOf(DeepOrder("1"))),
+    val orders: List<DeepOrder> = listOf(DeepOrder("2"), DeepOrder("3")),
+    val lastOrder: Optional<DeepOrder> = Optional.of(DeepOrder("3"))
+)
+
+internal class DeepCustomer(val name: String, val orders: List<DeepOrder>)
+
+internal class DeepOrder(val id: String)
+
+internal class DeepTo {
+    var customer: DeepCustomerDto? = null
+    var orders: Set<DeepOrderDto>? = null
+    var lastOrder: Optional<DeepOrderDto>? = null
+}
+
+internal class DeepCustomerDto {
+    var name: String? = null
+    var orders: List<DeepOrderDto>? = null
+}
+
+internal class DeepOrderDto {
+    var id: String? = null
+}
+
 @AutoMapping(StringTo::class, strategy = AutoMappingStrategy.BY_NAME_AND_TYPE)
 internal class SameTypeAutomaticMappingFromExplicitWrongTarget {
     val long: Long = 1L
@@ -303,4 +383,138 @@ internal class ToWithArgConstructor(val long: Long)
 
 internal class ToWithNestedArgConstructor(val child: Child? = null) {
     class Child(val long: Long)
-}
\ No newline at end of file
+}
+
+internal abstract class Shape {
+    val name: String = "shape"
+}
+
+internal class Circle : Shape() {
+    val radius: Int = 1
+}
+
+internal class Square : Shape() {
+    val side: Int = 2
+}
+
+internal abstract class ShapeDto {
+    var name: String? = null
+}
+
+internal class CircleDto : ShapeDto() {
+    var radius: Int? = null
+}
+
+internal class SquareDto : ShapeDto() {
+    var side: Int? = null
+}
+
+@DefaultMappingTarget(OrderDto::class)
+internal class Order {
+    @MappedField(transformer = ImplicitMappingTransformer::class)
+    val customer: Customer = Customer()
+
+    @MappedField(transformer = ImplicitCollectionMappingTransformer::class)
+    val lineItems: List<LineItem> = listOf(LineItem())
+}
+
+@DefaultMappingTarget(CustomerDto::class)
+internal class Customer {
+    @MappedField
+    val name: String = "customer"
+}
+
+@DefaultMappingTarget(LineItemDto::class)
+internal class LineItem {
+    @MappedField
+    val quantity: Int = 1
+}
+
+internal class OrderDto {
+    var customer: CustomerDto? = null
+    var lineItems: List<LineItemDto>? = null
+}
+
+internal class CustomerDto {
+    var name: String? = null
+}
+
+internal class LineItemDto {
+    var quantity: Int? = null
+}
+
+@DefaultMappingTarget(MergeTo::class)
+internal class MergeFrom(
+    @MappedField(transformer = ImplicitCollectionMappingTransformer::class, mergeKey = "id")
+    val items: List<MergeItem> = emptyList()
+)
+
+@DefaultMappingTarget(MergeItemDto::class)
+internal class MergeItem(
+    @MappedField
+    val id: Long? = null,
+    @MappedField
+    val name: String? = null
+)
+
+internal class MergeTo {
+    var items: MutableList<MergeItemDto>? = null
+}
+
+internal class MergeItemDto(
+    var id: Long? = null,
+    var name: String? = null
+)
+
+@DefaultMappingTarget(ReadOnlyMergeTo::class)
+internal class ReadOnlyMergeFrom(
+    @MappedField(transformer = ImplicitCollectionMappingTransformer::class, mergeKey = "id")
+    val items: List<MergeItem> = emptyList()
+)
+
+internal class ReadOnlyMergeTo {
+    var items: List<MergeItemDto> = listOf()
+}
+
+internal class FanOutFrom(
+    val id: Long = 1,
+    val name: String = "name"
+)
+
+internal class FanOutListDto {
+    var id: String? = null
+}
+
+internal class FanOutDetailDto {
+    var id: String? = null
+    var name: String? = null
+}
+
+internal class MergeStats(
+    val name: String? = "stats",
+    val views: String = "10"
+)
+
+@DefaultMappingTarget(ReversibleTo::class)
+internal class ReversibleFrom(
+    @MappedField(mapTo = "title", reversible = true)
+    var name: String? = "name",
+    @MappedField
+    var oneWay: String? = "oneWay"
+)
+
+internal class ReversibleTo(
+    var title: String? = null,
+    var oneWay: String? = null
+)
+
+internal class CopyNode(
+    var name: String? = null,
+    var next: CopyNode? = null,
+    var tags: MutableList<String> = mutableListOf(),
+    var scores: IntArray = intArrayOf(),
+    var attributes: Map<String, CopyNode> = emptyMap(),
+    var created: Date? = null,
+    var days: EnumSet<DayOfWeek> = EnumSet.noneOf(DayOfWeek::class.java),
+    var schedule: EnumMap<DayOfWeek, CopyNode> = EnumMap(DayOfWeek::class.java)
+)
\ No newline at end of file
@@ -15,6 +15,7 @@ import dev.krud.shapeshift.ShapeShiftBuilder
 import dev.krud.shapeshift.condition.MappingCondition
 import dev.krud.shapeshift.condition.MappingConditionContext
 import dev.krud.shapeshift.enums.AutoMappingStrategy
+import dev.krud.shapeshift.naming.SnakeCaseNamingStrategy
 import dev.krud.shapeshift.transformer.base.MappingTransformer
 import dev.krud.shapeshift.transformer.base.MappingTransformerContext
 import org.junit.jupiter.api.Nested
@@ -86,6 +87,55 @@ internal class KotlinDslMappingDefinitionBuilderTests {
                 .isEqualTo("*****")
         }
 
+        @Test
+        internal fun `auto mapping with flatten strategy`() {
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<From, FlatTo> {
+                    autoMap(AutoMappingStrategy.FLATTEN)
+                }
+                .build()
+            val original = From()
+            val result = shapeShift.map<From, FlatTo>(original)
+            expectThat(result.string)
+                .isEqualTo(original.string)
+            expectThat(result.childString)
+                .isEqualTo(original.child.string)
+            expectThat(result.childGrandChildString)
+                .isEqualTo(original.child.grandChild.string)
+        }
+
+        @Test
+        internal fun `auto mapping with unflatten strategy`() {
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<FlatTo, To> {
+                    autoMap(AutoMappingStrategy.UNFLATTEN)
+                }
+                .build()
+            val original = FlatTo("Test 1", "Test 2", "Test 3")
+            val result = shapeShift.map<FlatTo, To>(original)
+            expectThat(result.string)
+                .isEqualTo(original.string)
+            expectThat(result.child.string)
+                .isEqualTo(original.childString)
+            expectThat(result.child.grandChild.string)
+                .isEqualTo(original.childGrandChildString)
+        }
+
+        @Test
+        internal fun `auto mapping with snake case naming strategy`() {
+            val shapeShift = ShapeShiftBuilder()
+                .withMapping<From, SnakeCaseTo> {
+                    autoMap(AutoMappingStrategy.FLATTEN, SnakeCaseNamingStrategy)
+                }
+                .build()
+            val original = From()
+            val result = shapeShift.map<From, SnakeCaseTo>(original)
+            expectThat(result.nullable_string)
+                .isEqualTo(original.nullableString)
+            expectThat(result.child_grand_child_string)
+                .isEqualTo(original.child.grandChild.string)
+        }
+
         @Test
         internal fun `simple mapping without transformer`() {
             val shapeShift = ShapeShiftBuilder()
@@ -248,6 +298,17 @@ internal class KotlinDslMappingDefinitionBuilderTests {
         }
     }
 
+    @Test
+    fun `mergeBy should set the merge key of the mapped field`() {
+        val mapping = mapper<From, To> {
+            From::child mappedTo To::child mergeBy From.Child::string
+        }
+
+        val resolvedMappedField = mapping.mappingDefinition.resolvedMappedFields.first()
+        expectThat(resolvedMappedField.mergeKey)
+            .isEqualTo("string")
+    }
+
     @Test
     fun `rangeTo on source should give a reference to the child field`() {
         val mapping = mapper<From, To> {
@@ -376,4 +437,16 @@ internal class To(
     class GrandChild(
         var string: String = "Unmodified"
     )
-}
\ No newline at end of file
+}
+
+internal class FlatTo(
+    var string: String = "Unmodified",
+    var childString: String = "Unmodified",
+    var childGrandChildString: String = "Unmodified"
+)
+
+@Suppress("PropertyName")
+internal class SnakeCaseTo(
+    var nullable_string: String? = "Unmodified",
+    var child_grand_child_string: String = "Unmodified"
+)
\ No newline at end of file
@@ -0,0 +1,45 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.index
+
+import dev.krud.shapeshift.GenericFrom
+import dev.krud.shapeshift.GenericTo
+import dev.krud.shapeshift.StringTo
+import dev.krud.shapeshift.util.ClassPair
+import org.junit.jupiter.api.Test
+import strikt.api.expectThat
+import strikt.assertions.containsExactly
+import strikt.assertions.isEqualTo
+
+class ShapeShiftIndexTests {
+    @Test
+    internal fun `index files should be merged by source class`() {
+        val index = ShapeShiftIndex.parse(
+            listOf(
+                { "dev.krud.shapeshift.GenericFrom=dev.krud.shapeshift.GenericTo\n".byteInputStream() },
+                { "dev.krud.shapeshift.GenericFrom=dev.krud.shapeshift.StringTo, dev.krud.shapeshift.GenericTo\n".byteInputStream() }
+            )
+        )
+        expectThat(index.targets)
+            .isEqualTo(mapOf("dev.krud.shapeshift.GenericFrom" to setOf("dev.krud.shapeshift.GenericTo", "dev.krud.shapeshift.StringTo")))
+    }
+
+    @Test
+    internal fun `class pairs which cannot be loaded should be skipped`() {
+        val index = ShapeShiftIndex.parse(
+            listOf {
+                "dev.krud.shapeshift.GenericFrom=dev.krud.shapeshift.GenericTo,dev.krud.shapeshift.Missing,dev.krud.shapeshift.StringTo\ndev.krud.shapeshift.Missing=dev.krud.shapeshift.GenericTo\n".byteInputStream()
+            }
+        )
+        expectThat(index.getClassPairs())
+            .containsExactly(ClassPair(GenericFrom::class.java, GenericTo::class.java), ClassPair(GenericFrom::class.java, StringTo::class.java))
+    }
+}
\ No newline at end of file
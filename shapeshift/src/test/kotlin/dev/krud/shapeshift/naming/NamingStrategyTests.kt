@@ -0,0 +1,46 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.naming
+
+import org.junit.jupiter.api.Test
+import strikt.api.expectThat
+import strikt.api.expectThrows
+import strikt.assertions.isEqualTo
+
+class NamingStrategyTests {
+    @Test
+    internal fun `prefix should only be stripped when followed by an uppercase character`() {
+        val strategy = PrefixNamingStrategy("m")
+        expectThat(listOf("mName", "model", "message", "m").map { strategy.normalize(it) })
+            .isEqualTo(listOf("name", "model", "message", "m"))
+    }
+
+    @Test
+    internal fun `prefix ending with a separator should always be stripped`() {
+        val strategy = PrefixNamingStrategy("_")
+        expectThat(strategy.normalize("_name"))
+            .isEqualTo("name")
+    }
+
+    @Test
+    internal fun `suffix should be stripped at a camel case boundary`() {
+        val strategy = SuffixNamingStrategy("Field", "_dto")
+        expectThat(listOf("nameField", "name_dto", "Field").map { strategy.normalize(it) })
+            .isEqualTo(listOf("name", "name", "Field"))
+    }
+
+    @Test
+    internal fun `suffix not starting at a camel case boundary should be rejected`() {
+        expectThrows<IllegalArgumentException> {
+            SuffixNamingStrategy("field")
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.resolver
+
+import org.junit.jupiter.api.Test
+import strikt.api.expectThat
+import strikt.assertions.isNull
+import strikt.assertions.isSameInstanceAs
+
+class StaticMappingDefinitionResolverTests {
+    @Test
+    internal fun `resolving from 10k mapping definitions should return the definition registered for each pair`() {
+        // Nested array classes provide 100 distinct classes, so 100 x 100 distinct pairs
+        val classes = (1..100).runningFold(Any::class.java as Class<*>) { clazz, _ -> java.lang.reflect.Array.newInstance(clazz, 0).javaClass }
+            .drop(1)
+        val mappingDefinitions = classes.flatMap { from -> classes.map { to -> MappingDefinition(from, to, emptyList()) } }
+        val resolver = StaticMappingDefinitionResolver(mappingDefinitions)
+        for (mappingDefinition in mappingDefinitions) {
+            expectThat(resolver.resolve(mappingDefinition.fromClazz, mappingDefinition.toClazz))
+                .isSameInstanceAs(mappingDefinition)
+        }
+        expectThat(resolver.resolve(String::class.java, String::class.java))
+            .isNull()
+    }
+
+    @Test
+    internal fun `first mapping definition registered for a pair should take precedence`() {
+        val first = MappingDefinition(String::class.java, Int::class.java, emptyList())
+        val second = MappingDefinition(String::class.java, Int::class.java, emptyList())
+        val resolver = StaticMappingDefinitionResolver(listOf(first, second))
+        expectThat(resolver.resolve(String::class.java, Int::class.java))
+            .isSameInstanceAs(first)
+    }
+}
\ No newline at end of file
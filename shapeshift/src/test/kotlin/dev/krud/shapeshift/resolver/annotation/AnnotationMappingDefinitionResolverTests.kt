@@ -0,0 +1,55 @@
+/*
+ * Copyright KRUD 2022
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package dev.krud.shapeshift.resolver.annotation
+
+import dev.krud.shapeshift.FromWithBase
+import dev.krud.shapeshift.FromWithMultipleTargets
+import dev.krud.shapeshift.FromWithTypeMappedFieldOnBase
+import dev.krud.shapeshift.GenericTo
+import dev.krud.shapeshift.SecondFromWithBase
+import dev.krud.shapeshift.StringTo
+import dev.krud.shapeshift.ToWithBase
+import org.junit.jupiter.api.Test
+import strikt.api.expectThat
+import strikt.assertions.isEqualTo
+import strikt.assertions.isSameInstanceAs
+
+class AnnotationMappingDefinitionResolverTests {
+    @Test
+    internal fun `subclasses should reuse the resolved mapped fields of their superclass`() {
+        val resolver = AnnotationMappingDefinitionResolver()
+        val first = resolver.resolve(FromWithBase::class.java, ToWithBase::class.java)
+        val second = resolver.resolve(SecondFromWithBase::class.java, ToWithBase::class.java)
+        expectThat(first.resolvedMappedFields.map { it.mapFromCoordinates.first().name })
+            .isEqualTo(listOf("long", "baseLong"))
+        expectThat(second.resolvedMappedFields.last())
+            .isSameInstanceAs(first.resolvedMappedFields.last())
+    }
+
+    @Test
+    internal fun `type level mapped fields of a superclass should be resolved against the subclass`() {
+        val resolver = AnnotationMappingDefinitionResolver()
+        val result = resolver.resolve(FromWithTypeMappedFieldOnBase::class.java, ToWithBase::class.java)
+        expectThat(result.resolvedMappedFields.map { it.mapFromCoordinates.first() })
+            .isEqualTo(listOf(FromWithTypeMappedFieldOnBase::class.java.getDeclaredField("long")))
+    }
+
+    @Test
+    internal fun `mapped fields of a class should be filtered per target`() {
+        val resolver = AnnotationMappingDefinitionResolver()
+        val genericTo = resolver.resolve(FromWithMultipleTargets::class.java, GenericTo::class.java)
+        val stringTo = resolver.resolve(FromWithMultipleTargets::class.java, StringTo::class.java)
+        expectThat(genericTo.resolvedMappedFields.map { it.mapFromCoordinates.first().name })
+            .isEqualTo(listOf("long"))
+        expectThat(stringTo.resolvedMappedFields.map { it.mapFromCoordinates.first().name })
+            .isEqualTo(listOf("long", "secondLong"))
+    }
+}
\ No newline at end of file
@@ -15,7 +15,9 @@ import dev.krud.shapeshift.transformer.base.MappingTransformerContext
 import org.junit.jupiter.api.Test
 import strikt.api.expectThat
 import strikt.api.expectThrows
+import strikt.assertions.isA
 import strikt.assertions.isEqualTo
+import strikt.assertions.isNotSameInstanceAs
 import strikt.assertions.isNull
 import java.util.*
 import kotlin.reflect.jvm.javaField
@@ -428,4 +430,280 @@ class ShapeShiftTransformerTests {
         expectThat(result)
             .isEqualTo(expectedResult)
     }
+
+    @Test
+    fun `ImplicitCollectionMappingTransformer should map into the target collection type`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitCollectionMappingTransformer()
+        val from = ImplicitCollectionFrom(
+            listOf(ImplicitCollectionFrom.FromChild("test"), ImplicitCollectionFrom.FromChild("test"))
+        )
+        val to = ImplicitCollectionToSet()
+        val context = MappingTransformerContext(
+            from.fromChildren,
+            from,
+            to,
+            from::fromChildren.javaField!!,
+            to::toChildren.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(setOf(ImplicitCollectionTo.ToChild("test")))
+    }
+
+    @Test
+    fun `ImplicitCollectionMappingTransformer should copy a collection when element mapping is the identity`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitCollectionMappingTransformer()
+        val from = StringCollectionFrom()
+        val to = StringCollectionTo()
+        val context = MappingTransformerContext(
+            from.strings,
+            from,
+            to,
+            from::strings.javaField!!,
+            to::strings.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(from.strings)
+            .isNotSameInstanceAs(from.strings)
+    }
+
+    @Test
+    fun `ImplicitCollectionMappingTransformer should convert value elements through the default transformers`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitCollectionMappingTransformer()
+        val from = StringCollectionFrom()
+        val to = StringCollectionTo()
+        val context = MappingTransformerContext(
+            from.numericStrings,
+            from,
+            to,
+            from::numericStrings.javaField!!,
+            to::longs.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(listOf(1L, 2L))
+    }
+
+    @Test
+    fun `ImplicitCollectionMappingTransformer should fail on value elements without a default transformer`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitCollectionMappingTransformer()
+        val from = StringCollectionFrom()
+        val to = StringCollectionTo()
+        val context = MappingTransformerContext(
+            from.longs,
+            from,
+            to,
+            from::longs.javaField!!,
+            to::strings.javaField!!,
+            shapeShift
+        )
+        expectThrows<IllegalStateException> {
+            transformer.transform(context)
+        }
+    }
+
+    @Test
+    fun `ImplicitCollectionMappingTransformer should copy a collection of a different type when element mapping is the identity`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitCollectionMappingTransformer()
+        val from = StringCollectionFrom()
+        val to = StringCollectionTo()
+        val context = MappingTransformerContext(
+            from.strings,
+            from,
+            to,
+            from::strings.javaField!!,
+            to::stringSet.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(setOf("a", "b"))
+    }
+
+    @Test
+    fun `primitive arrays should be converted by the default transformers`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<PrimitiveArrayFrom, PrimitiveArrayTo> {
+                PrimitiveArrayFrom::ints mappedTo PrimitiveArrayTo::longs
+                PrimitiveArrayFrom::ints mappedTo PrimitiveArrayTo::intList
+                PrimitiveArrayFrom::samples mappedTo PrimitiveArrayTo::sampleArray
+                PrimitiveArrayFrom::samples mappedTo PrimitiveArrayTo::sampleDoubles
+            }
+            .build()
+        val result = shapeShift.map<PrimitiveArrayFrom, PrimitiveArrayTo>(PrimitiveArrayFrom())
+        expectThat(result.longs!!.toList())
+            .isEqualTo(listOf(1L, 2L, 3L))
+        expectThat(result.intList)
+            .isEqualTo(listOf(1, 2, 3))
+        expectThat(result.sampleArray!!.toList())
+            .isEqualTo(listOf(4, 5, 6))
+        expectThat(result.sampleDoubles!!.toList())
+            .isEqualTo(listOf(4.0, 5.0, 6.0))
+    }
+
+    @Test
+    fun `primitive array elements should be converted to the element type of the target list`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<PrimitiveArrayFrom, PrimitiveArrayTo> {
+                PrimitiveArrayFrom::ints mappedTo PrimitiveArrayTo::longList
+            }
+            .build()
+        val result = shapeShift.map<PrimitiveArrayFrom, PrimitiveArrayTo>(PrimitiveArrayFrom())
+        expectThat(result.longList)
+            .isEqualTo(listOf(1L, 2L, 3L))
+    }
+
+    @Test
+    fun `primitive array elements without a default transformer to the target element type should fail`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<PrimitiveArrayFrom, PrimitiveArrayTo> {
+                PrimitiveArrayFrom::ints mappedTo PrimitiveArrayTo::stringList
+            }
+            .build()
+        expectThrows<IllegalStateException> {
+            shapeShift.map<PrimitiveArrayFrom, PrimitiveArrayTo>(PrimitiveArrayFrom())
+        }
+    }
+
+    @Test
+    fun `collection elements should be converted to the component type of the target primitive array`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withMapping<PrimitiveArrayFrom, PrimitiveArrayTo> {
+                PrimitiveArrayFrom::numericStrings mappedTo PrimitiveArrayTo::sampleArray
+            }
+            .build()
+        val result = shapeShift.map<PrimitiveArrayFrom, PrimitiveArrayTo>(PrimitiveArrayFrom())
+        expectThat(result.sampleArray!!.toList())
+            .isEqualTo(listOf(7, 8))
+    }
+
+    @Test
+    fun `default transformer for a primitive array pair should replace the built-in one`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withTransformer(IntArray::class.java, List::class.java, { listOf("custom") }, true)
+            .withMapping<PrimitiveArrayFrom, PrimitiveArrayTo> {
+                PrimitiveArrayFrom::ints mappedTo PrimitiveArrayTo::stringList
+            }
+            .build()
+        val result = shapeShift.map<PrimitiveArrayFrom, PrimitiveArrayTo>(PrimitiveArrayFrom())
+        expectThat(result.stringList)
+            .isEqualTo(listOf("custom"))
+    }
+
+    @Test
+    fun `PrimitiveArrayToListMappingTransformer should not share the source array`() {
+        val transformer = PrimitiveArrayToListMappingTransformer()
+        val source = intArrayOf(1, 2)
+        val result = transformer.transform(mockMappingTransformerContext(source))
+        source[0] = 5
+        expectThat(result)
+            .isEqualTo(listOf(1, 2))
+    }
+
+    @Test
+    fun `ImplicitMapMappingTransformer should map map values`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitMapMappingTransformer()
+        val from = ImplicitMapFrom()
+        val to = ImplicitMapTo()
+        val context = MappingTransformerContext(
+            from.children,
+            from,
+            to,
+            from::children.javaField!!,
+            to::children.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(mapOf("first" to ImplicitCollectionTo.ToChild("test")))
+    }
+
+    @Test
+    fun `ImplicitMapMappingTransformer should create a map of the target type`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitMapMappingTransformer()
+        val from = ImplicitMapFrom()
+        val to = ImplicitMapTo()
+        val context = MappingTransformerContext(
+            from.children,
+            from,
+            to,
+            from::children.javaField!!,
+            to::sortedChildren.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isA<TreeMap<*, *>>()
+    }
+
+    @Test
+    fun `ImplicitMapMappingTransformer should copy a map when key and value mapping is the identity`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitMapMappingTransformer()
+        val from = ImplicitMapFrom()
+        val to = ImplicitMapTo()
+        val context = MappingTransformerContext(
+            from.names,
+            from,
+            to,
+            from::names.javaField!!,
+            to::names.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(from.names)
+            .isNotSameInstanceAs(from.names)
+    }
+
+    @Test
+    fun `ImplicitMapMappingTransformer should convert value keys through the default transformers`() {
+        val shapeShift = ShapeShiftBuilder()
+            .withTransformer(Long::class.javaObjectType, String::class.java, { it.originalValue?.toString() }, true)
+            .build()
+        val transformer = ImplicitMapMappingTransformer()
+        val from = ImplicitMapFrom()
+        val to = ImplicitMapTo()
+        val context = MappingTransformerContext(
+            from.childrenById,
+            from,
+            to,
+            from::childrenById.javaField!!,
+            to::children.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(mapOf("1" to ImplicitCollectionTo.ToChild("first"), "2" to ImplicitCollectionTo.ToChild("second")))
+    }
+
+    @Test
+    fun `ImplicitMapMappingTransformer should convert numeric keys to the target key type`() {
+        val shapeShift = ShapeShiftBuilder().build()
+        val transformer = ImplicitMapMappingTransformer()
+        val from = ImplicitMapFrom()
+        val to = ImplicitMapTo()
+        val context = MappingTransformerContext(
+            from.namesByIntId,
+            from,
+            to,
+            from::namesByIntId.javaField!!,
+            to::namesByLongId.javaField!!,
+            shapeShift
+        )
+        val result = transformer.transform(context)
+        expectThat(result)
+            .isEqualTo(mapOf(1L to "first", 2L to "second"))
+    }
 }
\ No newline at end of file
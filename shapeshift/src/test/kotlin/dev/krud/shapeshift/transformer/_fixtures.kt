@@ -14,6 +14,7 @@ import dev.krud.shapeshift.ShapeShiftBuilder
 import dev.krud.shapeshift.resolver.annotation.DefaultMappingTarget
 import dev.krud.shapeshift.resolver.annotation.MappedField
 import dev.krud.shapeshift.transformer.base.MappingTransformerContext
+import java.util.*
 import kotlin.reflect.jvm.javaField
 
 class ExampleObject {
@@ -40,6 +41,54 @@ data class ImplicitCollectionTo(
     )
 }
 
+class StringCollectionFrom(
+    val strings: List<String> = listOf("a", "b", "a"),
+    val numericStrings: List<String> = listOf("1", "2"),
+    val longs: List<Long> = listOf(1L, 2L)
+)
+
+class StringCollectionTo(
+    val strings: List<String>? = null,
+    val stringSet: Set<String>? = null,
+    val longs: List<Long>? = null
+)
+
+class ImplicitCollectionToSet(
+    val toChildren: Set<ImplicitCollectionTo.ToChild>? = null
+)
+
+class ImplicitMapFrom(
+    val children: Map<String, ImplicitCollectionFrom.FromChild> = mapOf("first" to ImplicitCollectionFrom.FromChild("test")),
+    val names: Map<String, String> = mapOf("first" to "test"),
+    val childrenById: Map<Long, ImplicitCollectionFrom.FromChild> = mapOf(
+        1L to ImplicitCollectionFrom.FromChild("first"),
+        2L to ImplicitCollectionFrom.FromChild("second")
+    ),
+    val namesByIntId: Map<Int, String> = mapOf(1 to "first", 2 to "second")
+)
+
+class ImplicitMapTo(
+    val children: Map<String, ImplicitCollectionTo.ToChild>? = null,
+    val sortedChildren: SortedMap<String, ImplicitCollectionTo.ToChild>? = null,
+    val names: Map<String, String>? = null,
+    val namesByLongId: Map<Long, String>? = null
+)
+
+class PrimitiveArrayFrom(
+    val ints: IntArray = intArrayOf(1, 2, 3),
+    val samples: List<Int> = listOf(4, 5, 6),
+    val numericStrings: List<String> = listOf("7", "8")
+)
+
+class PrimitiveArrayTo(
+    var longs: LongArray? = null,
+    var intList: List<Int>? = null,
+    var longList: List<Long>? = null,
+    var stringList: List<String>? = null,
+    var sampleArray: IntArray? = null,
+    var sampleDoubles: DoubleArray? = null
+)
+
 fun <From : Any?> mockMappingTransformerContext(value: From?): MappingTransformerContext<From> {
     return MappingTransformerContext(
         value,
@@ -12,25 +12,51 @@ package dev.krud.shapeshift.spring
 
 import dev.krud.shapeshift.ShapeShift
 import dev.krud.shapeshift.ShapeShiftBuilder
+import dev.krud.shapeshift.index.ShapeShiftIndex
 import dev.krud.shapeshift.spring.customizer.ShapeShiftDecoratorCustomizer
 import dev.krud.shapeshift.spring.customizer.ShapeShiftTransformerCustomizer
+import org.apache.commons.logging.LogFactory
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.core.io.ResourceLoader
 
 @Configuration
 @ConditionalOnClass(ShapeShift::class)
 class ShapeShiftAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(ShapeShift::class)
-    fun shapeShift(@Autowired(required = false) customizers: List<ShapeShiftBuilderCustomizer>?): ShapeShift {
+    fun shapeShift(
+        @Autowired(required = false) customizers: List<ShapeShiftBuilderCustomizer>?,
+        @Value("\${shapeshift.precompile-index:true}") precompileIndex: Boolean,
+        resourceLoader: ResourceLoader
+    ): ShapeShift {
         val builder = ShapeShiftBuilder()
         customizers?.forEach { customizer ->
             customizer.customize(builder)
         }
-        return builder.build()
+        val shapeShift = builder.build()
+        if (precompileIndex) {
+            precompileIndex(shapeShift, resourceLoader.classLoader ?: ShapeShiftAutoConfiguration::class.java.classLoader)
+        }
+        return shapeShift
+    }
+
+    /**
+     * Resolve the pairs listed in the build-time index of the application's [classLoader] up front, rather than on first use.
+     * A pair which cannot be resolved is logged and left to fail on first use, so that it does not prevent the context from starting
+     */
+    private fun precompileIndex(shapeShift: ShapeShift, classLoader: ClassLoader) {
+        for ((fromClazz, toClazz) in ShapeShiftIndex.load(classLoader).getClassPairs(classLoader)) {
+            try {
+                shapeShift.precompile(fromClazz, toClazz)
+            } catch (e: Exception) {
+                log.warn("Could not precompile the mapping between ${fromClazz.name} and ${toClazz.name}", e)
+            }
+        }
     }
 
     @Bean
@@ -38,4 +64,8 @@ class ShapeShiftAutoConfiguration {
 
     @Bean
     fun shapeShiftDecoratorCustomizer() = ShapeShiftDecoratorCustomizer()
+
+    companion object {
+        private val log = LogFactory.getLog(ShapeShiftAutoConfiguration::class.java)
+    }
 }
\ No newline at end of file